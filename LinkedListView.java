@@ -14,17 +14,64 @@
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.UUID;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
 
 /**
  * A version of the CS 314 LinkedList class that supports visualisation.  Must be instantiated in a try-with-resources
@@ -44,19 +91,10 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
     //region Instance variables
     /** Common names of LinkedList header nodes. */
     private static final String[] HEAD_NAMES = {"begin", "first", "front", "head", "init"};
-    /** Header node of the LinkedList class. */
-    private Field headNodeField;
     /** Common names of LinkedList trailer nodes. */
     private static final String[] TAIL_NAMES = {"end", "final", "last", "tail", "trail"};
-    /** Tail node of the LinkedList class; null if LinkedList is circular. */
-    private Field tailNodeField;
-
-    /** Reference from a LinkedList node to the previous node. */
-    private Field nodePrevField;
-    /** Field containing the data of a LinkedList node. */
-    private Field nodeDataField;
-    /** Reference from a LinkedList node to the next node. */
-    private Field nodeNextField;
+    /** Resolved structure of the LinkedList class and its nodes. */
+    private final ListSchema schema;
 
     /** Colour in which to highlight new list components. */
     private static final String NEW_COLOUR = "blue";
@@ -64,23 +102,144 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
     private static final String MODIFIED_COLOUR = "red";
     /** Character sequence at the end of a node's attribute declaration. */
     private static final String END_NODE_ATTRIBUTES = "];\n";
+    /** Attributes of the invisible node that anchors each rank of a diagramme, closing the rank's opening. */
+    private static final String RANK_DUMMY_ATTRIBUTES = "[shape=none,label=\"\",height=0,width=0]; ";
+    /** Number of ranks of a diagramme serialised together, on a single thread. */
+    private static final int SERIALISATION_CHUNK_RANKS = 512;
+    /** Number of chunks of a diagramme that each worker thread may serialise ahead of the chunk being written. */
+    private static final int SERIALISATION_CHUNKS_PER_WORKER = 2;
+    /**
+     * Immutable element classes, whose rendering is reused by the next snapshot for as long as a node keeps the same
+     * element, and deferred until a coalesced entry is written.  Elements of other classes are rendered again for each
+     * snapshot and as soon as they are folded, as they may have been modified in place.
+     */
+    private static final Set<Class<?>> IMMUTABLE_ELEMENT_CLASSES = Set.of(String.class, Boolean.class,
+            Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class);
     /** Whether to highlight inter-operation modifications. */
     private boolean highlightModifications;
-    /** Cache of GraphViz Dot list nodes generated on a previous operation. */
-    private HashMap<Object, DotListNode> lastDotNodes;
-    /** Header node in the previous operation. */
-    private Object lastHeadNode;
-    /** Tail node in the previous operation. */
-    private Object lastTailNode;
+    /** Whether to draw a diagramme after each operation that modifies the list. */
+    private boolean drawDiagrammes;
+    /** Whether diagrammes are laid out only when they are scrolled into view. */
+    private boolean lazyRendering;
+    /** Maximum number of characters of an element's string representation to write, or 0 for no limit. */
+    private int maxElementLength;
+    /** Number of neighbours drawn on either side of each changed node, or -1 if every node is drawn. */
+    private int windowRadius;
+    /** Snapshot of the list captured on the previous operation. */
+    private Snapshot lastSnapshot;
+    /** Allocator of stable Dot node identifiers for LinkedList nodes. */
+    private NodeIdAllocator nodeIds;
+    /** Number of diagrammes written thus far, used to generate unique diagramme element IDs. */
+    private long operationCount;
+    /** Number of operations logged thus far, each coalesced entry counting as one. */
+    private int loggedOperationCount;
+    /** State of the list after each operation that modified it, in order, or null if history is not recorded. */
+    private ArrayList<ListState<E>> history;
+    /** Number of diagrammes between full keyframes in delta mode, or 0 if every diagramme is written in full. */
+    private int keyframeInterval;
+    /** Number of delta diagrammes written since the last keyframe. */
+    private int diagrammesSinceKeyframe;
+    /** Lists with a delta diagramme in the current segment of the transcript, compared by identity. */
+    private final Set<LinkedListView<?>> listsInSegment = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Walker used to find the frame from which an operation was called. */
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    /** Number of IList method overrides currently executing on this list. */
+    private int callDepth;
+    /** Lock held for the whole of each operation if this view is thread-safe, or null if it is not. */
+    private final ReentrantLock operationLock;
+    /** Source of the sequence numbers of operations on thread-safe views, shared so that all views share one order. */
+    private static final AtomicLong OPERATION_SEQUENCE = new AtomicLong();
+    /**
+     * Number of consecutive identical operations written individually before further ones are coalesced, or 0 if
+     * operations are never coalesced.
+     */
+    private int coalesceThreshold;
+    /** Maximum time in nanoseconds spanned by a single coalesced entry, or 0 for no limit. */
+    private long coalesceWindowNanos;
+    /** The run of identical operations that the last operation belongs to, or null if it was not a modification. */
+    private OperationRun currentRun;
+    /** The iterator whose calls to next() and hasNext() have not yet been written, or null if there is none. */
+    private LoggingIterator pendingIterator;
+    /** Whether to write modifying operations that leave the list unchanged without diagrammes. */
+    private boolean skipUnchangedDiagrammes;
+    /** Fingerprint of the structure of the list when it was last checked for changes. */
+    private long lastFingerprint;
+    /** Latencies of the LinkedList's operations, indexed by operation, or null if operations are not profiled. */
+    private OperationProfile[] profiles;
+    /** Size of the list when the operation being profiled began. */
+    private int profiledSize;
+    /**
+     * Policy deciding which modifications are drawn in diagrammes, shared with sub-list views, or null if every
+     * modification is drawn.
+     */
+    private SamplingPolicy sampling;
+    /** Whether to check the structure of the list after each modification. */
+    private boolean checkInvariants;
+    /** Number of modifications between full checks of the list's structure, or 0 if it is only checked locally. */
+    private int fullCheckInterval;
+    /** Number of modifications since the list's structure was last checked in full. */
+    private int modificationsSinceFullCheck;
+    /** Flight Recorder event for the operation being called from outside this class, or null if none is recorded. */
+    private OperationEvent operationEvent;
+    /**
+     * Whether the jdk.jfr module is present.  The event classes cannot be loaded without it, so they are only
+     * instantiated if it is, and no events are recorded otherwise.
+     */
+    private static final boolean FLIGHT_RECORDER_PRESENT = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
 
     /** Global logger for status monitoring. */
     private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
-    /** Writer to specified output HTML file. */
-    private FileWriter htmlWriter;
+    /**
+     * The view that writes the transcript to which this view's operations are written: this view, or the view from
+     * which this sub-list view was created, directly or indirectly.
+     */
+    private final LinkedListView<E> root;
+    /** The name of this list in the transcript, or null if this is a root view. */
+    private final String listName;
+    /**
+     * The list returned by LinkedList's getSubList() that this sub-list view wraps, or null if this is a root view,
+     * whose list is itself.  Every IList method of a sub-list view is forwarded to it.
+     */
+    private final LinkedList<E> subList;
+    /** Whether this is a sub-list view that has not yet drawn its list, which it does when it is first used. */
+    private boolean undrawnSubList;
+    /** Number of sub-list views created from this view and its sub-lists, used to name them. */
+    private int subListCount;
+    /** The view sharing this root view's transcript that may have entries not yet written, or null if there is none. */
+    private LinkedListView<E> activeView;
+    /** The view whose diagramme was last written to the transcript, used only by the thread writing records. */
+    private LinkedListView<E> lastDiagrammedView;
+    /** Writer to specified output HTML file, or null if the transcript is written as a binary trace. */
+    private ChannelWriter htmlWriter;
+    /** The files to which htmlWriter writes, or null if the transcript is written as a binary trace. */
+    private TranscriptFiles transcriptFiles;
+    /** The scripts with which the HTML transcript renders diagrammes, repeated at the start of every segment. */
+    private String rendererScripts;
+    /** Number of bytes written to segments of the transcript before the current one. */
+    private long endedSegmentsSize;
+    /** Writer to specified output binary trace, or null if the transcript is written as HTML. */
+    private TraceWriter traceWriter;
+    /**
+     * Emitter through which diagrammes are written to htmlWriter, used only by the thread writing records; null if
+     * this is a sub-list view, whose records are written by its root.
+     */
+    private final DotEmitter dotEmitter;
+    /** Emitters of chunks of diagrammes serialised in parallel, kept for reuse once their chunks are written. */
+    private final ArrayDeque<DotEmitter> spareEmitters;
+    /** Queue of records waiting to be written by writerThread, or null if records are written synchronously. */
+    private RecordQueue recordQueue;
+    /** Thread that writes queued records to htmlWriter, or null if records are written synchronously. */
+    private Thread writerThread;
 
-    /** Formatter for graph timestamps. */
-    private static final DateFormat TIMESTAMP_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-    /** Preamble for HTML graph output files.  Must be formatted with timestamps.  Also, string blocks please? */
+    /** Formatter for graph timestamps, which is immutable and so may be shared by views on any thread. */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    /**
+     * Preamble for HTML graph output files.  Must be formatted with a timestamp, the renderer scripts, and a timestamp.
+     * Also, string blocks please?
+     */
     private static final String HTML_PREAMBLE =
             "<!DOCTYPE html>\n"
             + "<html lang=\"en\">\n"
@@ -92,9 +251,7 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
             + "}</style>\n"
             + "</head>\n"
             + "<body>\n"
-            + "<script src=\"https://d3js.org/d3.v4.min.js\"></script>\n"
-            + "<script src=\"https://unpkg.com/viz.js@1.8.0/viz.js\"></script>\n"
-            + "<script src=\"https://unpkg.com/d3-graphviz@0.1.2/build/d3-graphviz.js\"></script>\n"
+            + "%s"
             + "<h1>CS 314 <code>LinkedList</code> operation transcript</h1>\n"
             + "<h3>Time generated: %s</h3>\n"
             + "<p>Elements highlighted in <span style=\"font-weight: 600; color: blue;\">blue</span> were "
@@ -102,6 +259,72 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
             + "<p>Elements highlighted in <span style=\"font-weight: 600; color: red;\">red</span> were "
             + "<strong>modified</strong> as a result of the last operation.</p>\n"
             + "<hr/>\n";
+    /** Scripts that render every diagramme as soon as the page loads. */
+    private static final String EAGER_RENDERER_SCRIPTS =
+            "<script src=\"https://d3js.org/d3.v4.min.js\"></script>\n"
+            + "<script src=\"https://unpkg.com/viz.js@1.8.0/viz.js\"></script>\n"
+            + "<script src=\"https://unpkg.com/d3-graphviz@0.1.2/build/d3-graphviz.js\"></script>\n"
+            + "<script>\n"
+            + "function llvDisplay(id, dot) {\n"
+            + "  d3.select('[id=\"' + id + '\"]').graphviz().engine('dot').renderDot(dot);\n"
+            + "}\n"
+            + "</script>\n";
+    /** Script that loads viz.js from a CDN, used by lazy rendering if no local copy is specified. */
+    private static final String VIZ_CDN_SCRIPT = "<script src=\"https://unpkg.com/viz.js@1.8.0/viz.js\"></script>\n";
+    /**
+     * Viewer that lays out diagrammes only when they are scrolled into view, caching the rendered SVGs and discarding
+     * the least recently used ones.  Diagrammes that leave the view are removed from the page but keep their height.
+     * Must be formatted with the capacity of the cache, and preceded by viz.js.
+     */
+    private static final String LAZY_VIEWER_SCRIPT =
+            "<style>.llv-diagramme { min-height: 8em; }</style>\n"
+            + "<script>\n"
+            + "var llvLazy = {capacity: %d, cache: new Map(), dots: new Map()};\n"
+            + "function llvSvg(id) {\n"
+            + "  var svg = llvLazy.cache.get(id);\n"
+            + "  if (svg === undefined) {\n"
+            + "    try {\n"
+            + "      svg = Viz(llvLazy.dots.get(id), {engine: 'dot', format: 'svg'});\n"
+            + "    } catch (e) {\n"
+            + "      return '<pre>' + String(e).replace(/&/g, '&amp;').replace(/</g, '&lt;') + '</pre>';\n"
+            + "    }\n"
+            + "  } else {\n"
+            + "    llvLazy.cache.delete(id);\n"
+            + "  }\n"
+            + "  llvLazy.cache.set(id, svg);\n"
+            + "  if (llvLazy.cache.size > llvLazy.capacity) {\n"
+            + "    llvLazy.cache.delete(llvLazy.cache.keys().next().value);\n"
+            + "  }\n"
+            + "  return svg;\n"
+            + "}\n"
+            + "llvLazy.observer = new IntersectionObserver(function (entries) {\n"
+            + "  entries.forEach(function (entry) {\n"
+            + "    var element = entry.target;\n"
+            + "    if (entry.isIntersecting) {\n"
+            + "      if (element.childElementCount === 0) {\n"
+            + "        element.innerHTML = llvSvg(element.id);\n"
+            + "        element.style.minHeight = '';\n"
+            + "      }\n"
+            + "    } else if (element.childElementCount > 0) {\n"
+            + "      element.style.minHeight = element.offsetHeight + 'px';\n"
+            + "      element.innerHTML = '';\n"
+            + "    }\n"
+            + "  });\n"
+            + "}, {rootMargin: '100%% 0px'});\n"
+            + "function llvDisplay(id, dot) {\n"
+            + "  llvLazy.dots.set(id, dot);\n"
+            + "  llvLazy.observer.observe(document.getElementById(id));\n"
+            + "}\n"
+            + "document.addEventListener('DOMContentLoaded', function () {\n"
+            + "  document.querySelectorAll('script[type=\"text/vnd.graphviz\"]').forEach(function (block) {\n"
+            + "    llvDisplay(block.id.slice(0, -'-dot'.length), block.text);\n"
+            + "  });\n"
+            + "});\n"
+            + "</script>\n";
+    /** Default capacity of the lazy viewer's cache of rendered diagrammes. */
+    private static final int DEFAULT_RENDER_CACHE_SIZE = 64;
+    /** Summary of a coalesced entry.  Must be formatted with the summary text. */
+    private static final String OPERATION_SUMMARY = "<p>%s</p>\n";
     /** Closing statements for HTML graph output files. */
     private static final String HTML_POSTAMBLE =
             "<hr/>\n"
@@ -125,19 +348,187 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
      */
     private static final String OPERATION_PREAMBLE =
             "<%s><code>%s</code> at %s from <code>%s:%d</code></%s>\n";
-    /** Diagramme template.  Must be formatted with a UUID twice. */
-    private static final String DIAGRAMME_PREAMBLE =
-            "<div id=\"%s\"></div>\n"
-            + "<script>\n"
-            + "d3.select('[id=\"%s\"]').graphviz().engine('dot').renderDot(`\n"
-            + "strict digraph {\n"
+    /**
+     * Header of an operation performed on a thread-safe view.  Must be formatted with the header tag, the sequence
+     * number, the operation name, a timestamp, the file name, the line number, the thread name, and the header tag.
+     */
+    private static final String THREADED_OPERATION_PREAMBLE =
+            "<%s>#%d <code>%s</code> at %s from <code>%s:%d</code> on thread <code>%s</code></%s>\n";
+    /** Opening of every Dot graph, up to its nodes. */
+    private static final String DOT_GRAPH_PREAMBLE =
+            "strict digraph {\n"
             + "  node[shape=record,penwidth=1.5" + END_NODE_ATTRIBUTES
             + "  edge[penwidth=2" + END_NODE_ATTRIBUTES
             + "  rankdir=LR;\n"
             + "  bgcolor=transparent;\n"
             + "  splines=true;\n"
             + "  ordering=out;\n";
+    /** Diagramme template.  Must be formatted with an operation ID twice. */
+    private static final String DIAGRAMME_PREAMBLE =
+            "<div id=\"%s\"></div>\n"
+            + "<script>\n"
+            + "d3.select('[id=\"%s\"]').graphviz().engine('dot').renderDot(`\n"
+            + DOT_GRAPH_PREAMBLE;
     private static final String DIAGRAMME_POSTAMBLE = "}`);\n</script>\n";
+    /**
+     * Lazily rendered diagramme template, which stores the Dot graph in an inert block for the lazy viewer.  Must be
+     * formatted with an operation ID twice.
+     */
+    private static final String LAZY_DIAGRAMME_PREAMBLE =
+            "<div id=\"%s\" class=\"llv-diagramme\"></div>\n"
+            + "<script type=\"text/vnd.graphviz\" id=\"%s-dot\">\n"
+            + DOT_GRAPH_PREAMBLE;
+    private static final String LAZY_DIAGRAMME_POSTAMBLE = "}\n</script>\n";
+    /** Prefix of the name of the placeholder for a run of unchanged nodes omitted from a windowed diagramme. */
+    private static final String WINDOW_GAP_PREFIX = "__GAP_";
+    /** Attributes of a placeholder for a run of omitted nodes, up to the number of nodes in its label. */
+    private static final String WINDOW_GAP_NODE_ATTRIBUTES =
+            "[shape=box,style=\"dashed,rounded\",fontname=monospace,label=\"… ";
+    /** Attributes of edges drawn from the placeholder of a run of unchanged nodes. */
+    private static final String WINDOW_GAP_EDGE_ATTRIBUTES = " [style=dashed,tailclip=true,dir=forward";
+    /** Notice of operations discarded because the writer thread could not keep up.  Must be formatted with a count. */
+    private static final String DROPPED_OPERATIONS_NOTICE =
+            "<p><em>%d operations were not logged because the transcript could not be written quickly "
+            + "enough.</em></p>\n";
+    /**
+     * Notice at the start of every segment of a transcript but the first.  Must be formatted with the segment number
+     * and the name of the previous segment.
+     */
+    private static final String SEGMENT_NOTICE =
+            "<p><em>Part %,d of this transcript, continued from <code>%s</code>.</em></p>\n<hr/>\n";
+    /** Magic number at the start and end of binary traces. */
+    private static final byte[] TRACE_MAGIC = {'L', 'L', 'V', 'T'};
+    /** Version of the binary trace format. */
+    private static final byte TRACE_VERSION = 3;
+    /** Version of the binary trace format whose frames have no list names. */
+    private static final byte TRACE_VERSION_WITHOUT_LISTS = 2;
+    /** Earliest version of the binary trace format that can still be read, whose headers have no thread names. */
+    private static final byte TRACE_VERSION_WITHOUT_THREADS = 1;
+    /** Kind of binary trace records that define a string. */
+    private static final byte TRACE_STRING = 1;
+    /** Kind of binary trace records that hold operations and an optional frame. */
+    private static final byte TRACE_OPERATIONS = 2;
+    /** Kind of binary trace records that hold the number of operations dropped. */
+    private static final byte TRACE_DROPPED = 3;
+    /** Size in bytes of the trailer at the end of binary traces. */
+    private static final int TRACE_TRAILER_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES + 4;
+    /** Maximum number of bytes in an unsigned LEB128 encoding of a long. */
+    private static final int MAX_VARLONG_BYTES = 10;
+    /** Number of frames between keyframes in binary traces if no keyframe interval is specified. */
+    private static final int DEFAULT_TRACE_KEYFRAME_INTERVAL = 64;
+    /** Delta diagramme template.  Must be formatted with an operation ID twice, and followed by a JSON frame. */
+    private static final String DELTA_DIAGRAMME_PREAMBLE =
+            "<div id=\"%s\"></div>\n"
+            + "<script>\n"
+            + "llvRender('%s', ";
+    private static final String DELTA_DIAGRAMME_POSTAMBLE = ");\n</script>\n";
+    /**
+     * Viewer used to rebuild diagrammes from keyframes and deltas in delta mode.  Each frame contains the header and
+     * tail node IDs (h, t), a map from node ID to [prev ID, label, next ID] for each added or modified node (n), a list
+     * of removed node IDs (d), whether the frame is a keyframe that replaces all previous state (k), and the name of
+     * the sub-list view that it belongs to (l), as each list's frames are relative to its own state.  The first frame
+     * of a list in each segment but its first also holds the list's previous state in full (b), from which frames are
+     * rebuilt and against which modifications are highlighted, as the viewer has no state from earlier segments.  The
+     * resulting Dot graph matches that generated by writeDiagramme().  Must be formatted with the header and tail
+     * variable names as JSON values and whether to highlight modifications.
+     */
+    private static final String DELTA_VIEWER_SCRIPT =
+            "<script>\n"
+            + "var llv = {headName: %s, tailName: %s, highlight: %s, states: {}};\n"
+            + "function llvColour(attribute, added, modified) {\n"
+            + "  return (llv.highlight && (added || modified)) ? attribute + '=' + (added ? 'blue' : 'red') : '';\n"
+            + "}\n"
+            + "function llvVariable(nodeName, name) {\n"
+            + "  return '  ' + nodeName + '[style=filled,fillcolor=black,fontcolor=white,fontname=monospace,'\n"
+            + "      + 'shape=ellipse,label=\"' + name + '\"];\\n';\n"
+            + "}\n"
+            + "function llvNull(nodeName, lastTarget) {\n"
+            + "  return '  ' + nodeName + '_NULL [shape=circle,label=<<B>\u2205</B>>];\\n'\n"
+            + "      + '  ' + nodeName + ' -> ' + nodeName + '_NULL ['\n"
+            + "      + llvColour('color', false, lastTarget === null) + '];\\n';\n"
+            + "}\n"
+            + "function llvDot(last, cur) {\n"
+            + "  var lastNodes = last ? last.n : {};\n"
+            + "  var lastHead = last ? last.h : null, lastTail = last ? last.t : null;\n"
+            + "  var order = [], levels = {}, minLevel = 0, maxLevel = 0, seen = {};\n"
+            + "  function visit(start, startLevel) {\n"
+            + "    var stack = [[start, startLevel]];\n"
+            + "    while (stack.length > 0) {\n"
+            + "      var item = stack.pop(), id = item[0], level = item[1];\n"
+            + "      if (id === null || seen[id]) continue;\n"
+            + "      seen[id] = true;\n"
+            + "      if (order.length === 0) minLevel = maxLevel = level;\n"
+            + "      order.push(id);\n"
+            + "      (levels[level] = levels[level] || []).push(id);\n"
+            + "      minLevel = Math.min(minLevel, level);\n"
+            + "      maxLevel = Math.max(maxLevel, level);\n"
+            + "      stack.push([cur.n[id][0], level - 1], [cur.n[id][2], level + 1]);\n"
+            + "    }\n"
+            + "  }\n"
+            + "  var dot = 'strict digraph {\\n  node[shape=record,penwidth=1.5];\\n'\n"
+            + "      + '  edge[penwidth=2];\\n  rankdir=LR;\\n'\n"
+            + "      + '  bgcolor=transparent;\\n  splines=true;\\n  ordering=out;\\n';\n"
+            + "  dot += llvVariable('__HEADER_NAME', llv.headName);\n"
+            + "  visit(cur.h, 0);\n"
+            + "  if (llv.tailName !== null) {\n"
+            + "    dot += llvVariable('__TAIL_NAME', llv.tailName);\n"
+            + "    visit(cur.t, maxLevel);\n"
+            + "  }\n"
+            + "  var rank = 0;\n"
+            + "  for (var level = minLevel; order.length > 0 && level <= maxLevel; level++, rank++) {\n"
+            + "    dot += '  {rank=same; __DUMMY_' + rank + '[shape=none,label=\"\",height=0,width=0]; ';\n"
+            + "    levels[level].forEach(function (id) {\n"
+            + "      var node = cur.n[id], old = lastNodes[id], added = !old;\n"
+            + "      dot += '  __NODE_' + id + '[label=\"' + node[1].replace(/\"/g, '\\\\\"') + '\",'\n"
+            + "          + llvColour('color', added, false) + (added ? ',' : '')\n"
+            + "          + llvColour('fontcolor', added, !added && old[1] !== node[1]) + '];';\n"
+            + "    });\n"
+            + "    dot += '}\\n';\n"
+            + "  }\n"
+            + "  if (cur.h === null) {\n"
+            + "    dot += llvNull('__HEADER_NAME', lastHead);\n"
+            + "  } else {\n"
+            + "    dot += '  __HEADER_NAME -> __NODE_' + cur.h + ' ['\n"
+            + "        + llvColour('color', false, cur.h !== lastHead) + '];\\n';\n"
+            + "  }\n"
+            + "  if (llv.tailName !== null) {\n"
+            + "    if (cur.t === null) {\n"
+            + "      dot += llvNull('__TAIL_NAME', lastTail);\n"
+            + "    } else {\n"
+            + "      dot += '  __NODE_' + cur.t + ' -> __TAIL_NAME [dir=back,'\n"
+            + "          + llvColour('color', false, cur.t !== lastTail) + '];\\n';\n"
+            + "    }\n"
+            + "  }\n"
+            + "  dot += '  edge[tailclip=false,arrowtail=dot,dir=both];\\n';\n"
+            + "  order.forEach(function (id) {\n"
+            + "    var node = cur.n[id], old = lastNodes[id], added = !old;\n"
+            + "    [[2, ':next:c', ':nw'], [0, ':prev:c', ':se']].forEach(function (edge) {\n"
+            + "      var target = node[edge[0]];\n"
+            + "      if (target === null) return;\n"
+            + "      dot += '  __NODE_' + id + edge[1] + ' -> __NODE_' + target + edge[2] + ' ['\n"
+            + "          + llvColour('color', added, !added && old[edge[0]] !== target)\n"
+            + "          + ((id === cur.h || target === cur.h) ? ' constraint=false' : '') + '];\\n';\n"
+            + "    });\n"
+            + "  });\n"
+            + "  if (rank > 1) {\n"
+            + "    dot += '  __DUMMY_0';\n"
+            + "    for (var i = 1; i < rank; i++) dot += ' -> __DUMMY_' + i;\n"
+            + "    dot += ' [style=invis];\\n';\n"
+            + "  }\n"
+            + "  return dot + '}';\n"
+            + "}\n"
+            + "function llvRender(id, frame) {\n"
+            + "  var list = frame.l || '', last = llv.states[list] || frame.b || null;\n"
+            + "  var cur = {h: frame.h, t: frame.t, n: {}}, key, i;\n"
+            + "  if (!frame.k && last !== null) {\n"
+            + "    for (key in last.n) cur.n[key] = last.n[key];\n"
+            + "  }\n"
+            + "  for (i = 0; i < frame.d.length; i++) delete cur.n[frame.d[i]];\n"
+            + "  for (key in frame.n) cur.n[key] = frame.n[key];\n"
+            + "  llv.states[list] = cur;\n"
+            + "  llvDisplay(id, llvDot(last, cur));\n"
+            + "}\n"
+            + "</script>\n";
     //endregion
 
     //region Constructor and field resolution
@@ -159,46 +550,68 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
      * @throws NoSuchFieldException If a header node could not be found in LinkedList.
      */
     public LinkedListView(String fileName, boolean highlightModifications) throws NoSuchFieldException {
-        this.highlightModifications = highlightModifications;
-
-        // Find the header node, which must exist
-        this.headNodeField = this.findFieldName(LinkedList.class, HEAD_NAMES);
-        if (this.headNodeField == null) {
-            // The list must have a valid header
-            throw new NoSuchFieldException("Unable to find LinkedList header node.");
-        }
-        this.headNodeField.setAccessible(true);
-        LOGGER.info("Header node name: \"" + this.headNodeField.getName() + "\"");
-
-        // Find the optional tail node
-        this.tailNodeField = this.findFieldName(LinkedList.class, TAIL_NAMES);
-        if (this.tailNodeField == null) {
-            LOGGER.info("No tail node found; assuming list to be circular.");
-        } else {
-            this.tailNodeField.setAccessible(true);
-            LOGGER.info("Tail node name: \"" + this.tailNodeField.getName() + "\"");
+        this(fileName, new Options().setHighlightModifications(highlightModifications));
+    }
 
-            // Head and tail must have same type
-            if (!this.headNodeField.getType().equals(this.tailNodeField.getType())) {
-                throw new NoSuchFieldException("Head and tail nodes must have the same type.");
-            }
-        }
+    /**
+     * Construct a new LinkedListView instance with the specified options, using reflection to determine how the
+     * LinkedList is structured.
+     *
+     * @param fileName The name of the file to which to write HTML list diagrams.
+     * @param options The options with which to configure this view.
+     * @throws NoSuchFieldException If a header node could not be found in LinkedList.
+     */
+    public LinkedListView(String fileName, Options options) throws NoSuchFieldException {
+        this.highlightModifications = options.highlightModifications;
+        this.drawDiagrammes = options.drawDiagrammes;
+        this.lazyRendering = options.lazyRendering;
+        this.maxElementLength = options.maxElementLength;
+        this.windowRadius = options.windowRadius;
+        this.skipUnchangedDiagrammes = options.skipUnchangedDiagrammes;
+        this.coalesceThreshold = options.coalesceThreshold;
+        this.coalesceWindowNanos = options.coalesceWindowMillis * 1_000_000L;
+        this.keyframeInterval = options.keyframeInterval;
+        this.checkInvariants = options.checkInvariants;
+        this.fullCheckInterval = options.fullCheckInterval;
+        this.operationLock = options.threadSafe ? new ReentrantLock() : null;
+        this.root = this;
+        this.listName = null;
+        this.subList = null;
+        this.dotEmitter = new DotEmitter();
+        this.spareEmitters = new ArrayDeque<>();
 
-        // Find required LinkedList node fields
-        this.nodePrevField = this.resolveNodeField("prev");
-        this.nodeDataField = this.resolveNodeField("data");
-        this.nodeNextField = this.resolveNodeField("next");
+        this.schema = ListSchema.forClass(LinkedList.class);
 
         // Initial diff-checking state
-        lastDotNodes = new HashMap<>();
-        lastHeadNode = null;
-        lastTailNode = null;
+        lastSnapshot = null;
+        diagrammesSinceKeyframe = 0;
+        nodeIds = new NodeIdAllocator();
+        operationCount = 0;
+        loggedOperationCount = 0;
+        history = options.recordHistory ? new ArrayList<>() : null;
+        profiles = options.profiling ? new OperationProfile[Operation.values().length] : null;
+        sampling = SamplingPolicy.forOptions(options);
 
         // Create file and write preamble
         try {
-            this.htmlWriter = new FileWriter(fileName);
-            this.writePreamble();
-            this.writeOperation("LinkedList()", true);
+            if (options.outputFormat == OutputFormat.BINARY) {
+                int traceKeyframeInterval = (this.keyframeInterval > 0)
+                        ? this.keyframeInterval : DEFAULT_TRACE_KEYFRAME_INTERVAL;
+                this.traceWriter = new TraceWriter(fileName, traceKeyframeInterval);
+            } else {
+                this.transcriptFiles = new TranscriptFiles(fileName, options);
+                this.rendererScripts = rendererScripts(options);
+                this.htmlWriter = this.transcriptFiles.openNext();
+                this.writePreamble(this.rendererScripts);
+            }
+            if (options.writerQueueCapacity > 0) {
+                this.recordQueue = new RecordQueue(options.writerQueueCapacity, options.queueFullPolicy);
+                this.writerThread = new Thread(this::runWriter, "LinkedListView writer");
+                // Do not keep the program alive if the view is never closed
+                this.writerThread.setDaemon(true);
+                this.writerThread.start();
+            }
+            this.writeOperation(this.beginOperation(Operation.CONSTRUCT), Operation.CONSTRUCT);
         } catch (IOException e) {
             // Cannot proceed if the file cannot be written
             LOGGER.severe("Failed to create output file: " + e.getMessage());
@@ -206,533 +619,6417 @@ public class LinkedListView<E> extends LinkedList<E> implements AutoCloseable {
         }
     }
 
+    /**
+     * Construct a view of a sub-list of the specified view.  The view wraps the sub-list that LinkedList returned,
+     * exactly as it was returned, and writes to its parent's transcript with the same options.  It shares its parent's
+     * resolved schema and node identifiers, so creating it neither copies the sub-list nor resolves reflection again.
+     * The sub-list is drawn on its first use rather than now, so creating sub-lists in a loop costs nothing more than
+     * getSubList() itself.
+     *
+     * @param parent The view from which the sub-list was created.
+     * @param subList The sub-list returned by LinkedList's getSubList().
+     */
+    private LinkedListView(LinkedListView<E> parent, LinkedList<E> subList) {
+        this.highlightModifications = parent.highlightModifications;
+        this.drawDiagrammes = parent.drawDiagrammes;
+        this.lazyRendering = parent.lazyRendering;
+        this.maxElementLength = parent.maxElementLength;
+        this.windowRadius = parent.windowRadius;
+        this.skipUnchangedDiagrammes = parent.skipUnchangedDiagrammes;
+        this.coalesceThreshold = parent.coalesceThreshold;
+        this.coalesceWindowNanos = parent.coalesceWindowNanos;
+        this.keyframeInterval = parent.keyframeInterval;
+        this.checkInvariants = parent.checkInvariants;
+        this.fullCheckInterval = parent.fullCheckInterval;
+        this.operationLock = parent.operationLock;
+        this.root = parent.root;
+        this.listName = "subList" + ++this.root.subListCount;
+        this.subList = subList;
+        this.undrawnSubList = true;
+        this.dotEmitter = null;
+        this.spareEmitters = null;
+        this.schema = parent.schema;
+        // Node identifiers must be unique throughout the transcript
+        this.nodeIds = parent.nodeIds;
+        this.history = (parent.history != null) ? new ArrayList<>() : null;
+        this.profiles = parent.profiles;
+        this.sampling = parent.sampling;
+    }
+
     @Override
     public void close() {
+        // Let operations in progress on other threads finish first
+        this.lockOperations();
         try {
-            htmlWriter.write(HTML_POSTAMBLE);
-            htmlWriter.close();
-        } catch (IOException e) {
-            // If we can't close the file, something has gone horribly wrong
-            LOGGER.severe("Failed to close output file: " + e.getMessage());
+            if (this.root == this) {
+                this.closeTranscript();
+            } else {
+                // The transcript is closed with the root view
+                this.writeIteration();
+                this.flushRun();
+            }
+        } finally {
+            this.unlockOperations();
         }
     }
 
     /**
-     * Find the field in the specified class with a partial name in the specified list.
-     *
-     * @param searchClass The class in which to find the desired field.
-     * @param names The list of possible names for the desired field, with all names in lowercase.
-     * @return The field with a specified name if it exists, or null if it does not.
+     * Write any pending entries and the end of the transcript, then close it.
      */
-    private Field findFieldName(Class<?> searchClass, String[] names) {
-        for (Field field : searchClass.getDeclaredFields()) {
-            String fieldName = field.getName().toLowerCase();
-            for (String name : names) {
-                // Search for substrings to allow for name variations
-                if (fieldName.contains(name)) {
-                    return field;
+    private void closeTranscript() {
+        this.writeActiveEntries();
+        if (this.profiles != null) {
+            for (String finding : this.profileFindings()) {
+                LOGGER.warning(finding);
+            }
+        }
+        if (this.sampling != null && this.sampling.skippedCount > 0) {
+            LOGGER.info(String.format("Sampling skipped %d of %d diagrammes.", this.sampling.skippedCount,
+                    this.sampling.modificationCount));
+        }
+        if (this.writerThread != null) {
+            // Wait for the writer thread to finish writing all queued records
+            this.recordQueue.close();
+            boolean interrupted = false;
+            while (this.writerThread.isAlive()) {
+                try {
+                    this.writerThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
                 }
             }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
 
-        return null;
+        try {
+            if (this.traceWriter != null) {
+                this.traceWriter.close();
+            } else {
+                if (this.profiles != null) {
+                    this.writeProfile();
+                }
+                htmlWriter.write(HTML_POSTAMBLE);
+                htmlWriter.close();
+            }
+        } catch (IOException e) {
+            // If we can't close the file, something has gone horribly wrong
+            LOGGER.severe("Failed to close output file: " + e.getMessage());
+        }
     }
 
     /**
-     * Resolve the specified name to a field in the LinkedList node class and make it accessible.
+     * Perform the specified actions on this list without writing them to the transcript, for example to build a large
+     * list before the operations of interest.  Modifications made by the actions are highlighted in the next diagramme.
      *
-     * @param name The name of the field to resolve.
-     * @return The resolved field.
-     * @throws NoSuchFieldException If the field could not be resolved.
+     * @param actions The actions to perform.
      */
-    private Field resolveNodeField(String name) throws NoSuchFieldException {
-        Field field = this.findFieldName(headNodeField.getType(), new String[] {name});
-        if (field == null) {
-            throw new NoSuchFieldException("Unable to resolve LinkedList node field with name \"" + name + "\"");
+    public void runUnlogged(Runnable actions) {
+        this.lockOperations();
+        try {
+            // Operations coalesced before the actions must not include their modifications
+            this.flushRun();
+            this.callDepth++;
+            try {
+                actions.run();
+            } finally {
+                this.callDepth--;
+            }
+        } finally {
+            this.unlockOperations();
         }
-
-        field.setAccessible(true);
-        LOGGER.info("LinkedList node field \"" + name + "\" declared name: \"" + field.getName() + "\"");
-        return field;
     }
-    //endregion
 
-    //region File I/O utilities
     /**
-     * Write the preamble of a HTML graph document to htmlWriter.
+     * Resolved structure of a LinkedList class: the names of its header and tail fields, and accessors for those fields
+     * and the fields of its node class.  Resolving a schema requires searching the classes' fields by name, so each
+     * class is resolved only once and its schema is shared by every view.  Accessors are method handles adapted to a
+     * common type, so reading a field requires neither access checks nor reflective dispatch.
      */
-    private void writePreamble() throws IOException {
-        String startTimestamp = this.currentTimestamp();
-        htmlWriter.write(String.format(HTML_PREAMBLE, startTimestamp, startTimestamp));
-    }
+    private static class ListSchema {
+        /** Schemas resolved thus far, by LinkedList class. */
+        private static final ConcurrentHashMap<Class<?>, ListSchema> SCHEMAS = new ConcurrentHashMap<>();
+        /** Type to which every accessor is adapted so that it can be invoked exactly on any object. */
+        private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
 
-    /**
-     * @return A formatted representation of the current date and time.
-     */
-    private String currentTimestamp() {
-        return TIMESTAMP_FORMAT.format(new Date());
-    }
+        /** Name of the LinkedList's header node field. */
+        private final String headName;
+        /** Name of the LinkedList's tail node field; null if LinkedList is circular. */
+        private final String tailName;
+        /** Accessor for the LinkedList's header node. */
+        private final MethodHandle headGetter;
+        /** Accessor for the LinkedList's tail node; null if LinkedList is circular. */
+        private final MethodHandle tailGetter;
+        /** Accessor for the reference from a LinkedList node to the previous node. */
+        private final MethodHandle prevGetter;
+        /** Accessor for the data of a LinkedList node. */
+        private final MethodHandle dataGetter;
+        /** Accessor for the reference from a LinkedList node to the next node. */
+        private final MethodHandle nextGetter;
 
-    /**
-     * Write the effect of the specified operation to htmlWriter.
-     * @param operationName The name of the operation of which to write the effect.
-     * @param writeDiagramme Whether or not to draw a diagramme for this operation.
-     */
-    private void writeOperation(String operationName, boolean writeDiagramme) {
-        // Only write if the operation was called from outside of LinkedList
-        final int callerStackOffset = 3;
-        StackTraceElement callerStackFrame = Thread.currentThread().getStackTrace()[callerStackOffset];
-        if (callerStackFrame.getClassName().equals("LinkedList")) {
-            return;
+        /**
+         * Return the schema of the specified LinkedList class, resolving it if it has not been resolved before.
+         * @param listClass The LinkedList class to resolve.
+         * @return The schema of the class.
+         * @throws NoSuchFieldException If a header node or node field could not be found in the class.
+         */
+        static ListSchema forClass(Class<?> listClass) throws NoSuchFieldException {
+            ListSchema schema = SCHEMAS.get(listClass);
+            if (schema == null) {
+                schema = new ListSchema(listClass);
+                ListSchema existing = SCHEMAS.putIfAbsent(listClass, schema);
+                if (existing != null) {
+                    schema = existing;
+                }
+            }
+            return schema;
         }
 
-        // Create HTML structure for operation
-        String operationId = UUID.randomUUID().toString();
-        String headerTag = writeDiagramme ? "h2" : "h4";
+        /**
+         * Resolve the structure of the specified LinkedList class.
+         * @param listClass The LinkedList class to resolve.
+         * @throws NoSuchFieldException If a header node or node field could not be found in the class.
+         */
+        private ListSchema(Class<?> listClass) throws NoSuchFieldException {
+            // Find the header node, which must exist
+            Field headNodeField = findFieldName(listClass, HEAD_NAMES);
+            if (headNodeField == null) {
+                // The list must have a valid header
+                throw new NoSuchFieldException("Unable to find LinkedList header node.");
+            }
+            this.headName = headNodeField.getName();
+            this.headGetter = unreflectGetter(headNodeField);
+            LOGGER.info("Header node name: \"" + this.headName + "\"");
+
+            // Find the optional tail node
+            Field tailNodeField = findFieldName(listClass, TAIL_NAMES);
+            if (tailNodeField == null) {
+                LOGGER.info("No tail node found; assuming list to be circular.");
+                this.tailName = null;
+                this.tailGetter = null;
+            } else {
+                this.tailName = tailNodeField.getName();
+                this.tailGetter = unreflectGetter(tailNodeField);
+                LOGGER.info("Tail node name: \"" + this.tailName + "\"");
 
-        try {
-            htmlWriter.write(String.format(OPERATION_PREAMBLE, headerTag, operationName, this.currentTimestamp(),
-                    callerStackFrame.getFileName(), callerStackFrame.getLineNumber(), headerTag));
-            if (writeDiagramme) {
-                htmlWriter.write(String.format(DIAGRAMME_PREAMBLE, operationId, operationId));
-                this.writeDiagramme();
-                htmlWriter.write(DIAGRAMME_POSTAMBLE);
-            }
-            LOGGER.info("Logged operation " + operationName);
-        } catch (IOException | IllegalAccessException e) {
-            LOGGER.severe("Operation " + operationName + ": " + e.getMessage());
+                // Head and tail must have same type
+                if (!headNodeField.getType().equals(tailNodeField.getType())) {
+                    throw new NoSuchFieldException("Head and tail nodes must have the same type.");
+                }
+            }
+
+            // Find required LinkedList node fields
+            this.prevGetter = resolveNodeField(headNodeField.getType(), "prev");
+            this.dataGetter = resolveNodeField(headNodeField.getType(), "data");
+            this.nextGetter = resolveNodeField(headNodeField.getType(), "next");
         }
-    }
 
-    /**
-     * Write a GraphViz colour attribute to htmlWriter if an aspect of the graph was modified.
-     * @param attributeName The colour attribute to write if modified.
-     * @param added Whether this component of the graph was added in this stage.
-     * @param modified Whether this component of the graph was not added, but modified in this stage.
-     */
-    private void writeModifiedColour(String attributeName, boolean added, boolean modified)
-            throws IOException {
-        String colour = added ? NEW_COLOUR : MODIFIED_COLOUR;
-        if (this.highlightModifications && (modified || added)) {
-            htmlWriter.write(String.format("%s=%s", attributeName, colour));
+        /**
+         * Find the field in the specified class with a partial name in the specified list.
+         *
+         * @param searchClass The class in which to find the desired field.
+         * @param names The list of possible names for the desired field, with all names in lowercase.
+         * @return The field with a specified name if it exists, or null if it does not.
+         */
+        private static Field findFieldName(Class<?> searchClass, String[] names) {
+            for (Field field : searchClass.getDeclaredFields()) {
+                String fieldName = field.getName().toLowerCase();
+                for (String name : names) {
+                    // Search for substrings to allow for name variations
+                    if (fieldName.contains(name)) {
+                        return field;
+                    }
+                }
+            }
+
+            return null;
         }
-    }
-    //endregion
 
-    //region List rendering
-    /**
-     * Write a GraphViz Dot representation of this list to htmlWriter.
-     */
-    public void writeDiagramme() throws IllegalAccessException, IOException {
-        final String headerNodeName = "__HEADER_NAME";
-        final String tailNodeName = "__TAIL_NAME";
+        /**
+         * Resolve the specified name to a field in the LinkedList node class and create an accessor for it.
+         *
+         * @param nodeClass The LinkedList node class.
+         * @param name The name of the field to resolve.
+         * @return An accessor for the resolved field.
+         * @throws NoSuchFieldException If the field could not be resolved.
+         */
+        private static MethodHandle resolveNodeField(Class<?> nodeClass, String name) throws NoSuchFieldException {
+            Field field = findFieldName(nodeClass, new String[] {name});
+            if (field == null) {
+                throw new NoSuchFieldException("Unable to resolve LinkedList node field with name \"" + name + "\"");
+            }
 
-        // Store DotListNodes in a map: LinkedList node -> DotListNode
-        HashMap<Object, DotListNode> dotNodes = new HashMap<>();
-        ArrayList<ArrayList<DotListNode>> nodeLevels = new ArrayList<>();
-        int[] levelLimits = new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE};
-
-        // Process from header node
-        this.writeExternalVariable(headerNodeName, this.headNodeField.getName());
-        Object rawHeadNode = this.headNodeField.get(this);
-        DotListNode headNode = this.processNode(rawHeadNode, dotNodes, nodeLevels, 0, levelLimits);
-        // Process from tail node (if extant)
-        Object rawTailNode = null;
-        DotListNode tailNode = null;
-        if (this.tailNodeField != null) {
-            this.writeExternalVariable(tailNodeName, this.tailNodeField.getName());
-            rawTailNode = this.tailNodeField.get(this);
-            // In a properly structured list, the tail should have the maximum level
-            tailNode = this.processNode(rawTailNode, dotNodes, nodeLevels, levelLimits[1], levelLimits);
+            LOGGER.info("LinkedList node field \"" + name + "\" declared name: \"" + field.getName() + "\"");
+            return unreflectGetter(field);
         }
 
-        // Print nodes at each level
-        this.printRankedNodes(nodeLevels);
+        /**
+         * Create an accessor for the specified field, which may be private, of type (Object)Object.
+         * @param field The field for which to create an accessor.
+         * @return The accessor for the field.
+         * @throws NoSuchFieldException If the field cannot be accessed.
+         */
+        private static MethodHandle unreflectGetter(Field field) throws NoSuchFieldException {
+            try {
+                MethodHandles.Lookup lookup =
+                        MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+                return lookup.unreflectGetter(field).asType(ACCESSOR_TYPE);
+            } catch (IllegalAccessException e) {
+                NoSuchFieldException exception =
+                        new NoSuchFieldException("Unable to access field \"" + field.getName() + "\"");
+                exception.initCause(e);
+                throw exception;
+            }
+        }
 
-        // Print edges
-        if (headNode == null) {
-            this.writeNullExternalNode(headerNodeName, this.lastHeadNode);
-        } else {
-            htmlWriter.write(String.format("  %s -> %s%s [", headerNodeName, DotListNode.DOT_PREFIX,
-                    headNode.getUUID()));
-            writeModifiedColour("color", false, rawHeadNode != this.lastHeadNode);
-            htmlWriter.write(END_NODE_ATTRIBUTES);
-        }
-        if (this.tailNodeField != null) {
-            if (tailNode == null) {
-                this.writeNullExternalNode(tailNodeName, this.lastTailNode);
-            } else {
-                htmlWriter.write(String.format("  %s%s -> %s [dir=back,", DotListNode.DOT_PREFIX, tailNode.getUUID(),
-                        tailNodeName));
-                writeModifiedColour("color", false, rawTailNode != this.lastTailNode);
-                htmlWriter.write(END_NODE_ATTRIBUTES);
+        /**
+         * Read a field of the specified object with the specified accessor.
+         * @param accessor The accessor of the field to read.
+         * @param target The object whose field to read.
+         * @return The value of the field.
+         */
+        private static Object get(MethodHandle accessor, Object target) {
+            try {
+                return (Object) accessor.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                // Field getters cannot throw checked exceptions
+                throw new IllegalStateException(t);
             }
         }
-        htmlWriter.write("  edge[tailclip=false,arrowtail=dot,dir=both" + END_NODE_ATTRIBUTES);
 
-        for (DotListNode node : dotNodes.values()) {
-            node.writeDotEdges(dotNodes);
+        /**
+         * @return true if the LinkedList has a tail node, false if it is circular.
+         */
+        boolean hasTail() {
+            return this.tailGetter != null;
         }
 
-        // Write dummy edges
-        if (nodeLevels.size() > 1) {
-            htmlWriter.write("  __DUMMY_0");
-            for (int i = 1; i < nodeLevels.size(); i++) {
-                htmlWriter.write(" -> __DUMMY_" + i);
-            }
-            htmlWriter.write(" [style=invis" + END_NODE_ATTRIBUTES);
+        /**
+         * @param list The LinkedList whose header node to return.
+         * @return The header node of the list.
+         */
+        Object getHead(Object list) {
+            return get(this.headGetter, list);
+        }
+
+        /**
+         * @param list The LinkedList whose tail node to return.
+         * @return The tail node of the list, or null if the list has no tail.
+         */
+        Object getTail(Object list) {
+            return this.hasTail() ? get(this.tailGetter, list) : null;
+        }
+
+        /**
+         * @param node The LinkedList node whose previous node to return.
+         * @return The node before the specified node.
+         */
+        Object getPrev(Object node) {
+            return get(this.prevGetter, node);
+        }
+
+        /**
+         * @param node The LinkedList node whose data to return.
+         * @return The data stored in the specified node.
+         */
+        Object getData(Object node) {
+            return get(this.dataGetter, node);
         }
 
-        // Store this run's node cache
-        this.lastDotNodes = dotNodes;
-        this.lastHeadNode = rawHeadNode;
-        this.lastTailNode = rawTailNode;
+        /**
+         * @param node The LinkedList node whose next node to return.
+         * @return The node after the specified node.
+         */
+        Object getNext(Object node) {
+            return get(this.nextGetter, node);
+        }
     }
+    //endregion
 
+    //region File I/O utilities
     /**
-     * Print an external variable with the specified name to standard output as a Dot node.
-     * @param nodeName The name of the Dot node to print.
-     * @param name The name of the Java variable to print.
+     * Write the preamble of a HTML graph document to htmlWriter.
+     * @param rendererScripts The scripts with which to render diagrammes.
      */
-    private void writeExternalVariable(String nodeName, String name) throws IOException {
-        htmlWriter.write("  " + nodeName + "[style=filled,fillcolor=black,fontcolor=white,fontname=monospace,"
-                + "shape=ellipse,label=\"" + name + "\"" + END_NODE_ATTRIBUTES);
+    private void writePreamble(String rendererScripts) throws IOException {
+        String startTimestamp = this.currentTimestamp();
+        htmlWriter.write(String.format(HTML_PREAMBLE, startTimestamp, rendererScripts, startTimestamp));
+        if (this.keyframeInterval > 0) {
+            String tailName = this.schema.hasTail() ? jsonString(this.schema.tailName) : "null";
+            htmlWriter.write(String.format(DELTA_VIEWER_SCRIPT, jsonString(this.schema.headName), tailName,
+                    this.highlightModifications));
+        }
     }
 
     /**
-     * Draw an edge from the specified external variable's node to a null node.
-     * @param nameNode The name of the node containing this variable's name.
-     * @param lastTarget The target of this node during the previous operation.
+     * Build the scripts with which a transcript written with the specified options renders its diagrammes.
+     * @param options The options with which the transcript is written.
+     * @return The renderer scripts, to be included in the HTML preamble.
+     * @throws IOException If the local copy of viz.js could not be read.
      */
-    private void writeNullExternalNode(String nameNode, Object lastTarget) throws IOException {
-        htmlWriter.write("  " + nameNode + "_NULL [shape=circle,label=<<B>∅</B>>" + END_NODE_ATTRIBUTES);
-        htmlWriter.write("  " + nameNode + " -> " + nameNode + "_NULL [");
-        writeModifiedColour("color", false, lastTarget == null);
-        htmlWriter.write(END_NODE_ATTRIBUTES);
+    private static String rendererScripts(Options options) throws IOException {
+        if (!options.lazyRendering) {
+            return EAGER_RENDERER_SCRIPTS;
+        }
+        String vizScript = VIZ_CDN_SCRIPT;
+        if (options.rendererScript != null) {
+            String source = new String(Files.readAllBytes(Paths.get(options.rendererScript)), StandardCharsets.UTF_8);
+            // The script must not be able to close its own block
+            vizScript = "<script>\n" + source.replace("</script", "<\\/script") + "\n</script>\n";
+        }
+        return vizScript + String.format(LAZY_VIEWER_SCRIPT, options.renderCacheSize);
     }
 
     /**
-     * Recursively populate a map from LinkedList nodes onto DotListNodes, beginning at the specified node.
-     * @param startNode The node at which to start populating the map.
-     * @param nodeCache The map into which to store node mappings.
-     * @param levelNodes A list of nodes in each level of the rendered graph.
-     * @param level The level at which this node should be displayed in diagrammes.
-     * @param levelLimits int[2] storing the [minimum, maximum] level values thus far.
-     * @return The DotListNode corresponding to startNode.
+     * Escape the specified string as a JSON string literal that may be safely embedded in a HTML script block.
+     * @param value The string to escape.
+     * @return The escaped string, including surrounding quotes.
      */
-    private DotListNode processNode(Object startNode, HashMap<Object, DotListNode> nodeCache,
-            ArrayList<ArrayList<DotListNode>> levelNodes, int level, int[] levelLimits) throws IllegalAccessException {
-        // If start node is null, do nothing
-        if (startNode == null) {
-            return null;
-        }
-
-        // If this node has already been mapped, do not map again
-        if (nodeCache.containsKey(startNode)) {
-            return nodeCache.get(startNode);
-        }
-
-        // Otherwise, create a new mapping
-        DotListNode mappedNode = new DotListNode(startNode);
-        nodeCache.put(startNode, mappedNode);
-        // Adjust level bounds and add to level
-        if (level < levelLimits[0]) {
-            levelLimits[0] = level;
-            ArrayList<DotListNode> newLevel = new ArrayList<>();
-            newLevel.add(mappedNode);
-            levelNodes.add(0, newLevel);
-        } else if (level > levelLimits[1]) {
-            levelLimits[1] = level;
-            ArrayList<DotListNode> newLevel = new ArrayList<>();
-            newLevel.add(mappedNode);
-            levelNodes.add(newLevel);
-        } else {
-            levelNodes.get(level - levelLimits[0]).add(mappedNode);
+    private static String jsonString(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < ' ' || c == '<' || c == '>' || c == '\u2028' || c == '\u2029') {
+                // Control characters and tag delimiters could terminate the enclosing script block
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
         }
+        return escaped.append('"').toString();
+    }
 
-        this.processNode(mappedNode.getNextNode(), nodeCache, levelNodes, level + 1, levelLimits);
-        this.processNode(mappedNode.getPrevNode(), nodeCache, levelNodes, level - 1, levelLimits);
-        return mappedNode;
+    /**
+     * @return A formatted representation of the current date and time.
+     */
+    private String currentTimestamp() {
+        return formatTimestamp(System.currentTimeMillis());
     }
 
     /**
-     * Print the nodes in this list, grouped by their levels.
-     * @param levelNodes The nodes in the list within each level of the list.
+     * @param millis A time in milliseconds since the epoch.
+     * @return A formatted representation of the specified time.
      */
-    private void printRankedNodes(ArrayList<ArrayList<DotListNode>> levelNodes) throws IOException {
-        for (int level = 0; level < levelNodes.size(); level++) {
-            // Write level header
-            htmlWriter.write("  {rank=same; __DUMMY_" + level + "[shape=none,label=\"\",height=0,width=0]; ");
-            for (DotListNode node : levelNodes.get(level)) {
-                node.writeDot();
-            }
+    private static String formatTimestamp(long millis) {
+        return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
 
-            htmlWriter.write("}\n");
+    /**
+     * Format the HTML heading of a single operation.
+     * @param headerTag The tag of the heading.
+     * @param name The name of the operation, including its arguments.
+     * @param timeMillis The time in milliseconds since the epoch at which the operation was performed.
+     * @param fileName The name of the file from which the operation was called.
+     * @param lineNumber The line from which the operation was called.
+     * @param threadName The name of the thread that performed the operation, or null if it was not recorded.
+     * @param sequenceNumber The sequence number of the operation, ignored if the thread name is null.
+     * @return The heading.
+     */
+    private static String operationHeading(String headerTag, String name, long timeMillis, String fileName,
+                                           int lineNumber, String threadName, long sequenceNumber) {
+        String timestamp = formatTimestamp(timeMillis);
+        if (threadName == null) {
+            return String.format(OPERATION_PREAMBLE, headerTag, name, timestamp, fileName, lineNumber, headerTag);
         }
+        return String.format(THREADED_OPERATION_PREAMBLE, headerTag, sequenceNumber, name, timestamp, fileName,
+                lineNumber, threadName, headerTag);
     }
 
     /**
-     * GraphViz Dot-formatted deep copy of a single LinkedList node.  Instances of this class should not be persisted
-     * longer than a single method due to potential changes in the structure of the LinkedList itself.
+     * Operations that can be written to the transcript.
      */
-    private class DotListNode {
-        /** Prefix to prepend to Dot node names. */
-        public static final String DOT_PREFIX = "__NODE_";
-
-        /** The LinkedList node on which this node is based. */
-        private Object baseNode;
-        /** A reference to the previous node in the LinkedList. */
-        private Object prevNode;
-        /** The data stored in (referenced by) this object. */
-        private E data;
-        /** A reference to the following node in the LinkedList. */
-        private Object nextNode;
-        /** A unique identifier for this node, used in Dot graph generation because Java hash codes can collide. */
-        private UUID uuid;
+    private enum Operation {
+        CONSTRUCT("LinkedList", true),
+        TO_STRING("toString", false),
+        SIZE("size", false),
+        EQUALS("equals", false),
+        INDEX_OF("indexOf", false),
+        GET("get", false),
+        SET("set", true),
+        GET_SUB_LIST("getSubList", false),
+        INSERT("insert", true),
+        ADD("add", true),
+        ADD_FIRST("addFirst", true),
+        ADD_LAST("addLast", true),
+        REMOVE("remove", "int", true),
+        REMOVE_ELEMENT("remove", "E", true),
+        REMOVE_FIRST("removeFirst", true),
+        REMOVE_LAST("removeLast", true),
+        REMOVE_RANGE("removeRange", true),
+        MAKE_EMPTY("makeEmpty", true),
+        ITERATOR("iterator", false),
+        ITERATOR_REMOVE("Iterator.remove", true);
 
-        /**
-         * Construct a single DotListNode from the specified field in the specified object, which should be a LinkedList
-         * node.
-         *
-         * @param baseNode The LinkedList node on which to base this node.
-         */
-        @SuppressWarnings("unchecked")
-        public DotListNode(Object baseNode) throws IllegalAccessException {
-            this.uuid = UUID.randomUUID();
-            this.baseNode = baseNode;
-            // Deep copy from base node
-            this.prevNode = nodePrevField.get(baseNode);
-            this.data = (E) nodeDataField.get(baseNode);
-            this.nextNode = nodeNextField.get(baseNode);
-        }
+        /** The name of the method that performs this operation. */
+        private final String methodName;
+        /** The parameter types of the overload of the method that performs this operation, or null if unique. */
+        private final String overload;
+        /** Whether this operation modifies the list and is followed by a diagramme. */
+        private final boolean modifying;
 
         /**
-         * Return this node's UUID (universally unique identifier) as a Dot-compatible String.
-         * @return A Dot-compatible representation of this node's UUID.
+         * @param methodName The name of the method that performs this operation.
+         * @param modifying Whether this operation modifies the list and is followed by a diagramme.
          */
-        public String getUUID() {
-            return Long.toUnsignedString(this.uuid.getMostSignificantBits())
-                    + Long.toUnsignedString(this.uuid.getLeastSignificantBits());
+        Operation(String methodName, boolean modifying) {
+            this(methodName, null, modifying);
         }
 
         /**
-         * @return The previous object in this LinkedList.
+         * @param methodName The name of the method that performs this operation.
+         * @param overload The parameter types of the overload of the method that performs this operation, or null if
+         *                 the method is not overloaded.
+         * @param modifying Whether this operation modifies the list and is followed by a diagramme.
          */
-        public Object getPrevNode() {
-            return this.prevNode;
+        Operation(String methodName, String overload, boolean modifying) {
+            this.methodName = methodName;
+            this.overload = overload;
+            this.modifying = modifying;
         }
 
         /**
-         * @return The following object in this LinkedList.
+         * @return The name of the method that performs this operation followed by its parameter types if overloaded,
+         *         for example "remove(int)", or by empty parentheses otherwise.
          */
-        public Object getNextNode() {
-            return this.nextNode;
+        String signature() {
+            return this.methodName + '(' + ((this.overload == null) ? "" : this.overload) + ')';
         }
+    }
 
-        /**
-         * Write this node to htmlWriter as a GraphViz Dot node.
-         */
-        public void writeDot() throws IOException {
-            // Write UUID by integer value, as Dot does not allow hyphens in node names
-            htmlWriter.write("  " + DOT_PREFIX + this.getUUID() + "[label=\"");
+    /**
+     * @param element An element or argument.
+     * @return true if the element is null or of an immutable class, so that its rendering cannot change.
+     */
+    private static boolean isImmutable(Object element) {
+        return element == null || IMMUTABLE_ELEMENT_CLASSES.contains(element.getClass());
+    }
 
-            if (this.prevNode == null && this.data == null && this.nextNode == null) {
-                // Null node: print a simple representation of null
-                htmlWriter.write("null");
-            } else {
-                // Node with value: print a record node
-                String dataStr = (this.data == null) ? " null" : " " + this.data.toString().replaceAll("\"", "\\\"");
-                htmlWriter.write("{<prev>|<data>" + dataStr + "|<next>}");
+    /**
+     * @param arguments The arguments of an operation.
+     * @return true if every argument is null or of an immutable class.
+     */
+    private static boolean areImmutable(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (!isImmutable(argument)) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            htmlWriter.write("\",");
-            // Highlight newly added nodes
-            boolean newNode = !lastDotNodes.containsKey(this.baseNode);
-            E lastData = null;
-            writeModifiedColour("color", newNode, false);
-            if (newNode) {
-                htmlWriter.write(",");
-            } else {
-                lastData = lastDotNodes.get(this.baseNode).data;
+    /**
+     * Render the specified element for the transcript, truncating it to maxElementLength characters.
+     * @param element The element to render.
+     * @return The string representation of the element.
+     */
+    private String renderElement(Object element) {
+        if (element instanceof LinkedListView && ((LinkedListView<?>) element).listName != null) {
+            // Named rather than rendered, which would log a call to its toString()
+            return ((LinkedListView<?>) element).listName;
+        }
+        String rendered = String.valueOf(element);
+        if (this.maxElementLength > 0 && rendered.length() > this.maxElementLength) {
+            // Cut at a code point boundary, so that no surrogate pair is split
+            int end = this.maxElementLength;
+            if (Character.isHighSurrogate(rendered.charAt(end - 1)) && Character.isLowSurrogate(rendered.charAt(end))) {
+                end--;
             }
-
-            // Highlight data according to modification type
-            boolean modified = (lastData == null && data != null)
-                    || (lastData != null && data == null)
-                    || (lastData != null && !lastData.equals(this.data));
-            writeModifiedColour("fontcolor", newNode, !newNode && modified);
-            htmlWriter.write("];");
+            return rendered.substring(0, end) + "…";
         }
+        return rendered;
+    }
 
+    /**
+     * A run of consecutive identical operations:  operations of the same kind called from the same line on the same
+     * thread.  Once the run is longer than coalesceThreshold, further operations are folded into a single entry that is
+     * written when the run ends, so that loops do not draw a diagramme for every iteration.
+     */
+    private static class OperationRun {
+        /** The kind of the operations in this run. */
+        private final Operation operation;
+        /** The name of the file from which the operations were called. */
+        private final String fileName;
+        /** The line from which the operations were called. */
+        private final int lineNumber;
+        /** The thread that called the operations. */
+        private final Thread thread;
+        /** The number of operations in this run thus far. */
+        private int length;
+        /** The number of operations folded into the pending entry, or 0 if there is no pending entry. */
+        private int foldedCount;
+        /** The description of the first operation folded into the pending entry. */
+        private String firstFolded;
         /**
-         * Write this node's previous and next references to htmlWriter as Graphviz Dot edges.
-         * @param nodeCache A mapping from LinkedList nodes to DotListNodes used to get node UUIDs.
+         * The arguments of the last operation folded into the pending entry, which is rendered when the entry is
+         * written, or null if they were rendered when the operation was folded.
          */
-        public void writeDotEdges(HashMap<Object, DotListNode> nodeCache) throws IOException, IllegalAccessException {
-            // Do not highlight edges for new nodes
-            boolean newNode = !lastDotNodes.containsKey(this.baseNode);
+        private Object[] lastFoldedArguments;
+        /**
+         * The description of the last operation folded into the pending entry, if it had arguments that may be
+         * modified before the entry is written, or null otherwise.
+         */
+        private String lastFolded;
+        /** The value of System.nanoTime() when the first operation was folded into the pending entry. */
+        private long foldStartNanos;
+        /** The time in milliseconds since the epoch at which the last operation was folded into the pending entry. */
+        private long lastFoldMillis;
+
+        /**
+         * Begin a new run with the specified operation.
+         * @param operation The kind of the operations in this run.
+         * @param caller The stack frame from which the first operation was called.
+         */
+        OperationRun(Operation operation, StackWalker.StackFrame caller) {
+            this.operation = operation;
+            this.fileName = caller.getFileName();
+            this.lineNumber = caller.getLineNumber();
+            this.thread = Thread.currentThread();
+            this.length = 1;
+        }
+
+        /**
+         * @param operation The kind of an operation.
+         * @param caller The stack frame from which the operation was called.
+         * @return true if the operation belongs to this run, false otherwise.
+         */
+        boolean isContinuedBy(Operation operation, StackWalker.StackFrame caller) {
+            return this.operation == operation && this.lineNumber == caller.getLineNumber()
+                    && this.thread == Thread.currentThread() && Objects.equals(this.fileName, caller.getFileName());
+        }
+    }
+
+    /**
+     * Describe an operation as it would be written in Java.
+     * @param operation The operation to describe.
+     * @param arguments The arguments with which the operation was called.
+     * @return The description of the operation.
+     */
+    private String describeOperation(Operation operation, Object[] arguments) {
+        return this.qualify(operation.methodName + '(' + this.describeArguments(arguments) + ')');
+    }
+
+    /**
+     * @param description The description of an operation on this list.
+     * @return The description, preceded by the name of this list if it is a sub-list view, so that the operations of
+     *         lists sharing a transcript can be told apart.
+     */
+    private String qualify(String description) {
+        return (this.listName == null) ? description : this.listName + '.' + description;
+    }
+
+    /**
+     * @return The LinkedList whose structure this view draws: the sub-list that it wraps, or this view itself.  Only
+     *         to be read through the schema, as calling its methods on this view would log them.
+     */
+    private LinkedList<E> viewedList() {
+        return (this.subList == null) ? this : this.subList;
+    }
+
+    /**
+     * @return The size of the viewed list, without logging the call.
+     */
+    private int viewedSize() {
+        return (this.subList == null) ? super.size() : this.subList.size();
+    }
+
+    /**
+     * @param arguments The arguments with which an operation was called.
+     * @return The arguments as they would be written in Java, separated by commas.
+     */
+    private String describeArguments(Object[] arguments) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < arguments.length; i++) {
+            if (i > 0) {
+                description.append(", ");
+            }
+            description.append(this.renderElement(arguments[i]));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Find the frame from which an operation is being called, and write any coalesced operations that it does not
+     * continue.  Must be called before the operation takes effect, so that the coalesced entry's diagramme does not
+     * include it.
+     *
+     * @param operation The operation about to be performed.
+     * @return The caller's stack frame, or null if the operation was called from within LinkedList and should not be
+     *         written.
+     */
+    private StackWalker.StackFrame beginOperation(Operation operation) {
+        // Only write if the operation was called from outside of LinkedList
+        StackWalker.StackFrame callerStackFrame = STACK_WALKER.walk(LinkedListView::findCaller);
+        if (callerStackFrame == null || callerStackFrame.getClassName().equals(LinkedList.class.getName())) {
+            return null;
+        }
+
+        this.activate();
+        this.writeIteration();
+        OperationRun run = this.currentRun;
+        if (run != null && run.foldedCount > 0) {
+            boolean windowElapsed = this.coalesceWindowNanos > 0
+                    && System.nanoTime() - run.foldStartNanos > this.coalesceWindowNanos;
+            if (windowElapsed || !run.isContinuedBy(operation, callerStackFrame)) {
+                this.flushRun();
+            }
+        }
+        return callerStackFrame;
+    }
+
+    /**
+     * Record the effect of the specified operation and submit it to be written to htmlWriter, or fold it into the
+     * pending coalesced entry if it continues a long enough run.  The arguments are only rendered if the operation is
+     * to be written, so operations that LinkedList performs on itself cost nothing to describe.
+     *
+     * @param callerStackFrame The frame returned by beginOperation(), or null if the operation should not be written.
+     * @param operation The operation of which to write the effect.
+     * @param arguments The arguments with which the operation was called.
+     */
+    private void writeOperation(StackWalker.StackFrame callerStackFrame, Operation operation, Object... arguments) {
+        this.writeSummarisedOperation(callerStackFrame, operation, null, arguments);
+    }
+
+    /**
+     * Write the specified operation as writeOperation() does, with a summary below its heading.  The summary is
+     * omitted if the operation is folded into a coalesced entry.
+     *
+     * @param callerStackFrame The frame returned by beginOperation(), or null if the operation should not be written.
+     * @param operation The operation of which to write the effect.
+     * @param summary HTML summarising the operation, or null for none.
+     * @param arguments The arguments with which the operation was called.
+     */
+    private void writeSummarisedOperation(StackWalker.StackFrame callerStackFrame, Operation operation,
+                                          String summary, Object... arguments) {
+        if (callerStackFrame == null) {
+            return;
+        }
+        long startNanos = this.startLogging();
+        try {
+            OperationEvent event = this.operationEvent;
+            if (event != null) {
+                event.operation = operation.methodName;
+                event.arguments = this.describeArguments(arguments);
+                event.caller = callerStackFrame.toStackTraceElement().toString();
+            }
+
+            if (this.coalesceThreshold > 0) {
+                OperationRun run = this.currentRun;
+                if (run != null && run.isContinuedBy(operation, callerStackFrame)) {
+                    if (++run.length > this.coalesceThreshold) {
+                        if (run.foldedCount++ == 0) {
+                            run.firstFolded = this.describeOperation(operation, arguments);
+                            run.foldStartNanos = System.nanoTime();
+                        }
+                        if (areImmutable(arguments)) {
+                            // Rendered only if it is still the last operation when the entry is written
+                            run.lastFoldedArguments = arguments;
+                            run.lastFolded = null;
+                        } else {
+                            run.lastFoldedArguments = null;
+                            run.lastFolded = this.describeOperation(operation, arguments);
+                        }
+                        run.lastFoldMillis = System.currentTimeMillis();
+                        return;
+                    }
+                } else {
+                    // beginOperation() has already written any operations folded into the previous run
+                    this.currentRun = operation.modifying ? new OperationRun(operation, callerStackFrame) : null;
+                }
+            }
+
+            // Modifying operations that leave the list exactly as it was are written without a diagramme
+            boolean modified = operation.modifying && (this.updateFingerprint() || operation == Operation.CONSTRUCT);
+            if (this.undrawnSubList) {
+                // A sub-list is first drawn as getSubList() returned it, with the effect of this operation
+                this.undrawnSubList = false;
+                if (!operation.modifying) {
+                    this.updateFingerprint();
+                }
+                modified = true;
+                String notice = "First use of <code>" + this.listName + "</code>.";
+                summary = (summary == null) ? notice : notice + " " + summary;
+            }
+            // Modifications that are not sampled are written as a single line, like those that change nothing
+            boolean drawn = modified && (this.sampling == null || this.sampling.sample(operation));
+
+            int operationNumber = this.loggedOperationCount++;
+            Snapshot snapshot = null;
+            if (drawn) {
+                snapshot = this.captureState(operationNumber);
+            } else if (modified) {
+                this.recordUndrawnState(operationNumber);
+            }
+
+            // Render the arguments now, as they may be modified before the operation is written
+            String name = this.describeOperation(operation, arguments);
+            if (modified) {
+                summary = this.checkStructure(snapshot, name, callerStackFrame.getFileName(),
+                        callerStackFrame.getLineNumber(), summary);
+            }
+            OperationHeader header = new OperationHeader(name, System.currentTimeMillis(),
+                    callerStackFrame.getFileName(), callerStackFrame.getLineNumber(), drawn, summary);
+            this.assignSequence(header, Thread.currentThread());
+            this.submitRecord(new OperationRecord(header, snapshot));
+        } finally {
+            this.stopLogging(startNanos);
+        }
+    }
+
+    /**
+     * Write the operations folded into the current run as a single entry, with one diagramme of their combined effect
+     * and a summary of the nodes that they changed.
+     */
+    private void flushRun() {
+        OperationRun run = this.currentRun;
+        if (run == null || run.foldedCount == 0) {
+            return;
+        }
+
+        String lastFolded = (run.lastFolded != null) ? run.lastFolded
+                : this.describeOperation(run.operation, run.lastFoldedArguments);
+        // Folded operations are not checked individually, so check their combined effect
+        boolean modified = this.updateFingerprint();
+        int operationNumber = this.loggedOperationCount++;
+        Snapshot snapshot = modified ? this.captureState(operationNumber) : null;
+        String name;
+        String summary;
+        if (run.foldedCount == 1) {
+            // A single operation is written as though it had not been folded
+            name = lastFolded;
+            summary = null;
+        } else {
+            name = this.qualify(run.operation.methodName + "(…) ×" + run.foldedCount);
+            summary = String.format("%d consecutive calls, from <code>%s</code> to <code>%s</code>.",
+                    run.foldedCount, run.firstFolded, lastFolded);
+            if (snapshot != null) {
+                summary += " " + this.describeChanges(snapshot);
+            }
+        }
+        if (modified) {
+            summary = this.checkStructure(snapshot, name, run.fileName, run.lineNumber, summary);
+        }
+
+        OperationHeader header = new OperationHeader(name, run.lastFoldMillis, run.fileName, run.lineNumber, modified,
+                summary);
+        this.assignSequence(header, run.thread);
+        run.foldedCount = 0;
+        run.lastFoldedArguments = null;
+        run.lastFolded = null;
+        this.submitRecord(new OperationRecord(header, snapshot));
+    }
+
+    /**
+     * Number the specified header and attribute it to the specified thread if this view is thread-safe, so that the
+     * entries of operations from different threads can be told apart and put in order.
+     *
+     * @param header The header of an operation about to be submitted.
+     * @param thread The thread that performed the operation.
+     */
+    private void assignSequence(OperationHeader header, Thread thread) {
+        if (this.operationLock != null) {
+            header.sequenceNumber = OPERATION_SEQUENCE.getAndIncrement();
+            header.threadName = thread.getName();
+        }
+    }
+
+    /**
+     * Make this the view whose entries may be pending, first writing those of any other view sharing its transcript,
+     * so that the transcript stays in the order in which operations were performed on all of its lists.
+     */
+    private void activate() {
+        LinkedListView<E> root = this.root;
+        if (root.activeView != this) {
+            root.writeActiveEntries();
+            root.activeView = this;
+        }
+    }
+
+    /**
+     * Write the pending entries of the view sharing this root view's transcript that may have any.
+     */
+    private void writeActiveEntries() {
+        LinkedListView<E> active = (this.activeView == null) ? this : this.activeView;
+        active.writeIteration();
+        active.flushRun();
+    }
+
+    /**
+     * Check whether the structure of this list has changed since it was last checked by comparing its fingerprint with
+     * the one computed then.  Checking is skipped if its result would not be used.
+     *
+     * @return false if the list's fingerprint is unchanged, true if it has changed or was not checked.
+     */
+    private boolean updateFingerprint() {
+        if (!this.skipUnchangedDiagrammes || (!this.drawDiagrammes && this.history == null)) {
+            return true;
+        }
+        long fingerprint = this.fingerprint();
+        boolean changed = fingerprint != this.lastFingerprint;
+        this.lastFingerprint = fingerprint;
+        return changed;
+    }
+
+    /**
+     * Compute a fingerprint of the current structure of this list: a hash of the identities of its nodes, their
+     * previous and next nodes, and their data, in order from the header following next references and, unless that
+     * walk shows it would add nothing, from the tail (or the header if there is no tail) following previous
+     * references.  Unlike capturing a snapshot, this allocates nothing, so it is cheap enough to compute after every
+     * operation.
+     *
+     * @return The fingerprint of the list.
+     */
+    private long fingerprint() {
+        Object headNode = this.schema.getHead(this.viewedList());
+        Object tailNode = this.schema.hasTail() ? this.schema.getTail(this.viewedList()) : headNode;
+        long hash = mixFingerprint(System.identityHashCode(headNode), System.identityHashCode(tailNode));
+
+        // Walk forward, checking that every node but the header refers back to the node before it
+        boolean mirrored = true;
+        boolean tailVisited = false;
+        Object headPrevNode = null;
+        Object lastNode = null;
+        Object node = headNode;
+        Object checkpoint = headNode;
+        int steps = 0;
+        int stepLimit = 1;
+        while (node != null) {
+            Object prevNode = this.schema.getPrev(node);
+            Object nextNode = this.schema.getNext(node);
+            hash = mixFingerprint(hash, System.identityHashCode(prevNode));
+            hash = mixFingerprint(hash, System.identityHashCode(this.schema.getData(node)));
+            hash = mixFingerprint(hash, System.identityHashCode(nextNode));
+            if (lastNode == null) {
+                headPrevNode = prevNode;
+            } else {
+                mirrored &= (prevNode == lastNode);
+            }
+            tailVisited |= (node == tailNode);
+            lastNode = node;
+            node = nextNode;
+            if (node == headNode || node == checkpoint) {
+                break;
+            }
+            if (++steps == stepLimit) {
+                // Brent's algorithm: move the checkpoint ahead at doubling intervals
+                checkpoint = node;
+                stepLimit <<= 1;
+                steps = 0;
+            }
+        }
+
+        // If the walk ended at null or back at the header, with the header's previous reference closing the list the
+        // same way, the walk back from the tail would only revisit the nodes already added
+        boolean closed = (node == null) ? (headPrevNode == null) : (node == headNode && headPrevNode == lastNode);
+        if (mirrored && tailVisited && closed) {
+            return hash;
+        }
+        return this.fingerprintChain(hash, tailNode);
+    }
+
+    /**
+     * Add the nodes reachable from the specified node following previous references to a fingerprint.  The walk stops
+     * at null, on returning to the start node, or on detecting any other cycle with Brent's algorithm, so corrupted
+     * lists are fingerprinted in linear time without recording the nodes that have been visited.
+     *
+     * @param hash The fingerprint thus far.
+     * @param startNode The node at which to start.
+     * @return The updated fingerprint.
+     */
+    private long fingerprintChain(long hash, Object startNode) {
+        Object node = startNode;
+        Object checkpoint = startNode;
+        int steps = 0;
+        int stepLimit = 1;
+        while (node != null) {
+            Object prevNode = this.schema.getPrev(node);
+            hash = mixFingerprint(hash, System.identityHashCode(prevNode));
+            hash = mixFingerprint(hash, System.identityHashCode(this.schema.getData(node)));
+            hash = mixFingerprint(hash, System.identityHashCode(this.schema.getNext(node)));
+            node = prevNode;
+            if (node == startNode || node == checkpoint) {
+                break;
+            }
+            if (++steps == stepLimit) {
+                // Brent's algorithm: move the checkpoint ahead at doubling intervals
+                checkpoint = node;
+                stepLimit <<= 1;
+                steps = 0;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @param hash A fingerprint.
+     * @param value A value to add to the fingerprint.
+     * @return The fingerprint including the value.
+     */
+    private static long mixFingerprint(long hash, int value) {
+        return Long.rotateLeft((hash ^ value) * 0x9E3779B97F4A7C15L, 29);
+    }
+
+    /**
+     * Summarise the differences between the specified snapshot and the one before it.
+     * @param snapshot The snapshot to summarise.
+     * @return The numbers of nodes added, removed, and modified.
+     */
+    private String describeChanges(Snapshot snapshot) {
+        Map<Object, DotListNode> previousNodes = snapshot.getPreviousDotNodes();
+        int added = 0;
+        int modified = 0;
+        for (DotListNode node : snapshot.dotNodes.values()) {
+            DotListNode lastNode = previousNodes.get(node.baseNode);
+            if (lastNode == null) {
+                added++;
+            } else if (node.isModifiedSince(lastNode)) {
+                modified++;
+            }
+        }
+        int removed = 0;
+        for (Object baseNode : previousNodes.keySet()) {
+            if (!snapshot.dotNodes.containsKey(baseNode)) {
+                removed++;
+            }
+        }
+        return String.format("Nodes added: %d, removed: %d, modified: %d.", added, removed, modified);
+    }
+
+    /**
+     * Write the specified record to the root view's htmlWriter immediately if it is synchronous, or queue it for its
+     * writer thread otherwise.
+     * @param record The record to write.
+     */
+    private void submitRecord(OperationRecord record) {
+        LinkedListView<E> root = this.root;
+        if (root.recordQueue == null) {
+            root.writeRecord(record);
+        } else {
+            root.recordQueue.put(record);
+        }
+    }
+
+    /**
+     * Write the headers and diagramme of the specified record to the transcript, and record a Flight Recorder event
+     * for the write.  Must only be called from one thread at a time: the caller's thread if this view is synchronous,
+     * or the writer thread otherwise.
+     * @param record The record to write.
+     */
+    private void writeRecord(OperationRecord record) {
+        if (this.htmlWriter != null && this.transcriptFiles.isFull(this.htmlWriter)) {
+            try {
+                this.startSegment();
+            } catch (IOException e) {
+                LOGGER.severe("Failed to begin a new transcript segment: " + e.getMessage());
+            }
+        }
+
+        TranscriptWriteEvent event = FLIGHT_RECORDER_PRESENT ? new TranscriptWriteEvent() : null;
+        if (event == null || !event.isEnabled()) {
+            this.writeRecordContents(record);
+            return;
+        }
+
+        long startSize = this.transcriptSize();
+        event.begin();
+        this.writeRecordContents(record);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = record.headers.get(record.headers.size() - 1).name;
+            event.operationCount = record.headers.size();
+            event.diagramme = record.snapshot != null;
+            event.bytesWritten = this.transcriptSize() - startSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * End the current segment of the transcript and begin the next.  In delta mode, the next segment begins with a
+     * keyframe, so that every segment can be viewed on its own.
+     */
+    private void startSegment() throws IOException {
+        String endedName = Paths.get(this.transcriptFiles.currentName).getFileName().toString();
+        htmlWriter.write(HTML_POSTAMBLE);
+        htmlWriter.close();
+        this.endedSegmentsSize += htmlWriter.size();
+        this.transcriptFiles.segmentEnded(htmlWriter.fileSize());
+
+        this.htmlWriter = this.transcriptFiles.openNext();
+        this.writePreamble(this.rendererScripts);
+        htmlWriter.write(String.format(SEGMENT_NOTICE, this.transcriptFiles.fileCount, endedName));
+        this.diagrammesSinceKeyframe = 0;
+        this.listsInSegment.clear();
+    }
+
+    /**
+     * Write the headers and diagramme of the specified record to htmlWriter, or to traceWriter if the transcript is
+     * written as a binary trace.
+     * @param record The record to write.
+     */
+    private void writeRecordContents(OperationRecord record) {
+        if (record.snapshot != null && record.getList() != this.lastDiagrammedView) {
+            // Deltas are relative to the list's own previous diagramme, so the first after another list's is a keyframe
+            this.lastDiagrammedView = record.getList();
+            this.diagrammesSinceKeyframe = 0;
+            if (this.traceWriter != null) {
+                this.traceWriter.framesSinceKeyframe = 0;
+            }
+        }
+        if (this.traceWriter != null) {
+            try {
+                this.traceWriter.writeRecord(record);
+            } catch (IOException e) {
+                LOGGER.severe("Failed to write to trace file: " + e.getMessage());
+            }
+            if (record.snapshot != null) {
+                // The previous snapshot is no longer needed for computing deltas
+                record.snapshot.previous = null;
+            }
+            return;
+        }
+
+        String operationName = null;
+        try {
+            for (OperationHeader header : record.headers) {
+                operationName = header.name;
+                String headerTag = header.diagramme ? "h2" : "h4";
+                htmlWriter.write(operationHeading(headerTag, header.name, header.timeMillis, header.fileName,
+                        header.lineNumber, header.threadName, header.sequenceNumber));
+                if (header.summary != null) {
+                    htmlWriter.write(String.format(OPERATION_SUMMARY, header.summary));
+                }
+                if (LOGGER.isLoggable(Level.INFO)) {
+                    LOGGER.info("Logged operation " + header.name);
+                }
+            }
+
+            if (record.snapshot != null) {
+                // Create HTML structure for diagramme
+                String operationId = "operation-" + this.operationCount++;
+                if (this.keyframeInterval > 0) {
+                    htmlWriter.write(String.format(DELTA_DIAGRAMME_PREAMBLE, operationId, operationId));
+                    this.writeDeltaDiagramme(record.snapshot);
+                    htmlWriter.write(DELTA_DIAGRAMME_POSTAMBLE);
+                } else if (this.lazyRendering) {
+                    htmlWriter.write(String.format(LAZY_DIAGRAMME_PREAMBLE, operationId, operationId));
+                    this.writeDiagramme(record.snapshot);
+                    htmlWriter.write(LAZY_DIAGRAMME_POSTAMBLE);
+                } else {
+                    htmlWriter.write(String.format(DIAGRAMME_PREAMBLE, operationId, operationId));
+                    this.writeDiagramme(record.snapshot);
+                    htmlWriter.write(DIAGRAMME_POSTAMBLE);
+                }
+                // The previous snapshot is no longer needed for highlighting
+                record.snapshot.previous = null;
+            }
+        } catch (IOException e) {
+            LOGGER.severe("Operation " + operationName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write records from recordQueue to htmlWriter until the queue is closed and empty.  Run by the writer thread.
+     */
+    private void runWriter() {
+        ArrayList<OperationRecord> batch = new ArrayList<>();
+        while (this.recordQueue.takeAll(batch)) {
+            try {
+                long droppedCount = this.recordQueue.takeDroppedCount();
+                if (droppedCount > 0) {
+                    if (this.traceWriter != null) {
+                        this.traceWriter.writeDroppedCount(droppedCount);
+                    } else {
+                        htmlWriter.write(String.format(DROPPED_OPERATIONS_NOTICE, droppedCount));
+                    }
+                }
+                for (OperationRecord record : batch) {
+                    this.writeRecord(record);
+                }
+                // Make the transcript available as soon as the writer catches up
+                if (this.traceWriter != null) {
+                    this.traceWriter.flush();
+                } else {
+                    htmlWriter.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.severe("Failed to write to output file: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Find the first stack frame outside of LinkedListView and its nested classes, which is the frame from which an
+     * operation was called.  Frames are walked lazily, so only those of LinkedListView and its caller are ever
+     * materialised.  Classes whose names merely begin with LinkedListView, such as a LinkedListViewTest, are callers.
+     *
+     * @param frames The frames of the current stack, beginning with the innermost.
+     * @return The caller's stack frame, or null if there is none.
+     */
+    private static StackWalker.StackFrame findCaller(Stream<StackWalker.StackFrame> frames) {
+        String viewClassName = LinkedListView.class.getName();
+        String nestedClassPrefix = viewClassName + '$';
+        return frames.filter(frame -> !frame.getClassName().equals(viewClassName)
+                        && !frame.getClassName().startsWith(nestedClassPrefix))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Record entry into an IList method override.  Every entry must be paired with a call to exitOperation() in a
+     * finally block.  Calls that LinkedList makes to its own methods from within another override are internal, and
+     * can be discarded without inspecting the stack.
+     *
+     * @return true if this call is not nested within another override and should be logged, false otherwise.
+     */
+    private boolean enterOperation() {
+        this.lockOperations();
+        if (this.callDepth++ != 0) {
+            return false;
+        }
+        if (FLIGHT_RECORDER_PRESENT) {
+            // Not stored unless recording, so the event is never allocated once the JIT has compiled this method
+            OperationEvent event = new OperationEvent();
+            if (event.isEnabled()) {
+                event.startSize = this.callerTranscriptSize();
+                event.begin();
+                this.operationEvent = event;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record exit from an IList method override, and commit the Flight Recorder event for the operation if the call
+     * was not nested within another override.
+     */
+    private void exitOperation() {
+        OperationEvent event = this.operationEvent;
+        if (this.callDepth == 1 && event != null) {
+            this.operationEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                // Read while the call depth is still nonzero, so that the size is not logged as an operation
+                event.size = this.viewedSize();
+                event.bytesWritten = this.callerTranscriptSize() - event.startSize;
+                event.commit();
+            }
+        }
+        this.callDepth--;
+        this.unlockOperations();
+    }
+
+    /**
+     * Acquire operationLock if this view is thread-safe.  The lock is reentrant, so calls that LinkedList makes to its
+     * own methods acquire it again without blocking.
+     */
+    private void lockOperations() {
+        if (this.operationLock != null) {
+            this.operationLock.lock();
+        }
+    }
+
+    /**
+     * Release operationLock if this view is thread-safe.
+     */
+    private void unlockOperations() {
+        if (this.operationLock != null) {
+            this.operationLock.unlock();
+        }
+    }
+
+    /**
+     * Emit a GraphViz colour attribute if an aspect of the graph was modified.
+     * @param out The emitter to which to emit the attribute.
+     * @param attributeName The colour attribute to emit if modified.
+     * @param added Whether this component of the graph was added in this stage.
+     * @param modified Whether this component of the graph was not added, but modified in this stage.
+     */
+    private void appendModifiedColour(DotEmitter out, String attributeName, boolean added, boolean modified) {
+        if (this.highlightModifications && (modified || added)) {
+            out.append(attributeName).append('=').append(added ? NEW_COLOUR : MODIFIED_COLOUR);
+        }
+    }
+
+    /**
+     * Writer that encodes text as UTF-8 into a large direct buffer, which is written to a file channel only when full
+     * or flushed.  The file can optionally be compressed with gzip as it is written, in which case each full buffer is
+     * deflated straight into a second buffer, so that the uncompressed text is never held in memory.
+     */
+    private static class ChannelWriter extends Writer {
+        /** Capacity of the output buffer in bytes. */
+        private static final int BUFFER_SIZE = 1 << 16;
+        /** Header of gzip files: magic number, deflate, no flags, no modification time, no extra flags, unknown OS. */
+        private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        /** Channel to which to write the output file. */
+        private final FileChannel channel;
+        /** Encoder from text to UTF-8 bytes. */
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        /** Buffer of encoded bytes not yet written to the channel. */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /** Number of bytes written to the channel thus far. */
+        private long channelPosition;
+        /** Number of uncompressed bytes written out of the output buffer thus far. */
+        private long textSize;
+        /** Compressor of the output, or null if the file is not compressed. */
+        private final Deflater deflater;
+        /** Checksum of the uncompressed output, or null if the file is not compressed. */
+        private final CRC32 checksum;
+        /** Buffer of compressed bytes, or null if the file is not compressed. */
+        private final ByteBuffer compressed;
+        /** Array from which the deflater reads uncompressed bytes, or null if the file is not compressed. */
+        private final byte[] deflaterInput;
+        /** Array into which the deflater writes compressed bytes, or null if the file is not compressed. */
+        private final byte[] deflaterOutput;
+
+        /**
+         * Create a new uncompressed writer to the specified file, replacing any existing contents.
+         * @param fileName The name of the file to which to write.
+         */
+        public ChannelWriter(String fileName) throws IOException {
+            this(fileName, false);
+        }
+
+        /**
+         * Create a new writer to the specified file, replacing any existing contents.
+         * @param fileName The name of the file to which to write.
+         * @param compress Whether to compress the file with gzip.
+         */
+        public ChannelWriter(String fileName, boolean compress) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            if (compress) {
+                // Transcripts are so repetitive that the fastest level already shrinks them about ninefold
+                this.deflater = new Deflater(Deflater.BEST_SPEED, true);
+                this.checksum = new CRC32();
+                this.compressed = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                this.deflaterInput = new byte[BUFFER_SIZE];
+                this.deflaterOutput = new byte[BUFFER_SIZE];
+                this.writeFully(ByteBuffer.wrap(GZIP_HEADER));
+            } else {
+                this.deflater = null;
+                this.checksum = null;
+                this.compressed = null;
+                this.deflaterInput = null;
+                this.deflaterOutput = null;
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            this.encode(CharBuffer.wrap(str, off, off + len));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            this.encode(CharBuffer.wrap(cbuf, off, len));
+        }
+
+        /**
+         * Encode the specified characters into the output buffer, writing the buffer to the channel whenever it fills.
+         * @param chars The characters to encode.
+         */
+        private void encode(CharBuffer chars) throws IOException {
+            this.encoder.reset();
+            while (this.encoder.encode(chars, this.buffer, true).isOverflow()) {
+                this.writeBuffer();
+            }
+        }
+
+        /**
+         * Write the specified bytes, which must already be UTF-8, after any text written before them.  Large runs of
+         * bytes are written straight to the channel rather than copied through the output buffer.
+         *
+         * @param bytes The bytes to write, from their position to their limit.
+         */
+        public void write(ByteBuffer bytes) throws IOException {
+            if (bytes.remaining() > this.buffer.remaining()) {
+                this.writeBuffer();
+            }
+            if (bytes.remaining() > this.buffer.remaining()) {
+                this.writeText(bytes);
+            } else {
+                this.buffer.put(bytes);
+            }
+        }
+
+        /**
+         * Write the contents of the output buffer to the channel.
+         */
+        private void writeBuffer() throws IOException {
+            this.buffer.flip();
+            this.writeText(this.buffer);
+            this.buffer.clear();
+        }
+
+        /**
+         * Write the specified uncompressed bytes to the channel, compressing them first if the file is compressed.
+         * @param text The bytes to write, from their position to their limit.
+         */
+        private void writeText(ByteBuffer text) throws IOException {
+            this.textSize += text.remaining();
+            if (this.deflater == null) {
+                this.writeFully(text);
+                return;
+            }
+            // Copied through arrays, as the deflater only accepts buffers from Java 11
+            while (text.hasRemaining()) {
+                int length = Math.min(text.remaining(), this.deflaterInput.length);
+                text.get(this.deflaterInput, 0, length);
+                this.checksum.update(this.deflaterInput, 0, length);
+                this.deflater.setInput(this.deflaterInput, 0, length);
+                while (!this.deflater.needsInput()) {
+                    this.deflate(Deflater.NO_FLUSH);
+                }
+            }
+        }
+
+        /**
+         * Compress as much pending input as fits in the compressed buffer, and write the result to the channel.
+         * @param flushMode The flush mode with which to compress.
+         * @return The number of compressed bytes written.
+         */
+        private int deflate(int flushMode) throws IOException {
+            int length = this.deflater.deflate(this.deflaterOutput, 0, this.deflaterOutput.length, flushMode);
+            this.compressed.clear();
+            this.compressed.put(this.deflaterOutput, 0, length).flip();
+            this.writeFully(this.compressed);
+            return length;
+        }
+
+        /**
+         * Write the specified bytes to the channel as they are.
+         * @param bytes The bytes to write, from their position to their limit.
+         */
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                this.channelPosition += this.channel.write(bytes);
+            }
+        }
+
+        /**
+         * @return The number of uncompressed bytes written thus far, including those not yet written to the channel.
+         */
+        long size() {
+            return this.textSize + this.buffer.position();
+        }
+
+        /**
+         * @return The approximate size of the file thus far.  If the file is compressed, text that has not yet been
+         *         compressed is not counted.
+         */
+        long fileSize() {
+            return (this.deflater == null) ? this.size() : this.channelPosition;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.writeBuffer();
+            if (this.deflater != null) {
+                // Make everything written thus far decompressible without ending the stream
+                int length;
+                do {
+                    length = this.deflate(Deflater.SYNC_FLUSH);
+                } while (length == BUFFER_SIZE);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.writeBuffer();
+                if (this.deflater != null) {
+                    this.deflater.finish();
+                    while (!this.deflater.finished()) {
+                        this.deflate(Deflater.NO_FLUSH);
+                    }
+                    ByteBuffer trailer = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    trailer.putInt((int) this.checksum.getValue()).putInt((int) this.textSize).flip();
+                    this.writeFully(trailer);
+                }
+            } finally {
+                if (this.deflater != null) {
+                    this.deflater.end();
+                }
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * The files to which an HTML transcript is written.  Unless it is segmented, the transcript is written to the
+     * single file requested.  Otherwise, it is split into numbered segments, each a complete HTML document, named by
+     * inserting the segment number before the requested name's extension, and the oldest segments are deleted to keep
+     * the total size of the transcript within its limit.  Compressed files have ".gz" appended to their names.
+     */
+    private static class TranscriptFiles {
+        /** The name of each file up to its segment number. */
+        private final String prefix;
+        /** The name of each file after its segment number. */
+        private final String suffix;
+        /** Whether the files are compressed with gzip. */
+        private final boolean compressed;
+        /** The size at which a segment is ended and the next begun, or 0 if the transcript is not segmented. */
+        private final long maxSegmentSize;
+        /** The size that the segments of the transcript should not exceed in total, or 0 for no limit. */
+        private final long maxTotalSize;
+        /** The names of the ended segments that have not been deleted, oldest first. */
+        private final ArrayDeque<String> endedNames = new ArrayDeque<>();
+        /** The sizes of the ended segments that have not been deleted, oldest first. */
+        private final ArrayDeque<Long> endedSizes = new ArrayDeque<>();
+        /** The total size of the ended segments that have not been deleted. */
+        private long endedSize;
+        /** The number of files opened thus far. */
+        private int fileCount;
+        /** The name of the file being written. */
+        private String currentName;
+
+        /**
+         * @param fileName The name of the file requested for the transcript.
+         * @param options The options with which the transcript is written.
+         */
+        TranscriptFiles(String fileName, Options options) {
+            this.compressed = options.compressTranscript;
+            this.maxSegmentSize = options.maxSegmentSize;
+            this.maxTotalSize = options.maxTotalSize;
+            String suffix = "";
+            String prefix = fileName;
+            if (this.maxSegmentSize > 0) {
+                String baseName = Paths.get(fileName).getFileName().toString();
+                int extension = baseName.lastIndexOf('.');
+                int split = (extension > 0) ? fileName.length() - baseName.length() + extension : fileName.length();
+                prefix = fileName.substring(0, split) + "-";
+                suffix = fileName.substring(split);
+            }
+            this.prefix = prefix;
+            this.suffix = this.compressed ? suffix + ".gz" : suffix;
+        }
+
+        /**
+         * Open the next file of the transcript: the only one if it is not segmented, or the next segment otherwise.
+         * @return A writer to the file.
+         */
+        ChannelWriter openNext() throws IOException {
+            this.fileCount++;
+            this.currentName = this.prefix + ((this.maxSegmentSize > 0) ? this.fileCount : "") + this.suffix;
+            return new ChannelWriter(this.currentName, this.compressed);
+        }
+
+        /**
+         * @param writer The writer to the current file.
+         * @return true if the transcript is segmented and the current segment has reached its maximum size.
+         */
+        boolean isFull(ChannelWriter writer) {
+            return this.maxSegmentSize > 0 && writer.fileSize() >= this.maxSegmentSize;
+        }
+
+        /**
+         * Record that the current segment has been ended and closed, and delete the oldest ended segments until they
+         * and a full new segment fit within the total size limit.  The current segment is never deleted.
+         *
+         * @param size The final size of the segment.
+         */
+        void segmentEnded(long size) throws IOException {
+            this.endedNames.add(this.currentName);
+            this.endedSizes.add(size);
+            this.endedSize += size;
+            while (this.maxTotalSize > 0 && !this.endedNames.isEmpty()
+                    && this.endedSize + this.maxSegmentSize > this.maxTotalSize) {
+                Files.deleteIfExists(Paths.get(this.endedNames.remove()));
+                this.endedSize -= this.endedSizes.remove();
+            }
+        }
+    }
+
+    /**
+     * Reusable buffer into which GraphViz Dot text is emitted as UTF-8 bytes.  Numbers are written digit by digit and
+     * text is encoded character by character, so once the buffer has grown to fit the largest chunk of a diagramme,
+     * emitting nodes and edges allocates nothing.
+     */
+    private static class DotEmitter {
+        /** Initial capacity of the buffer in bytes. */
+        private static final int INITIAL_CAPACITY = 1 << 13;
+        /** Number of bytes in the longest encoding of a single UTF-16 character. */
+        private static final int MAX_BYTES_PER_CHAR = 3;
+
+        /** Scratch space for the digits of a number, which are produced least significant first. */
+        private final byte[] digits = new byte[20];
+        /** Bytes emitted since the buffer was last written. */
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+        /**
+         * Emit the specified text, encoded as UTF-8.  Unpaired surrogates are replaced with '?', as ChannelWriter does.
+         * @param text The text to emit.
+         * @return This emitter.
+         */
+        DotEmitter append(String text) {
+            return this.appendText(text, false);
+        }
+
+        /**
+         * Emit the specified text for a double-quoted Dot string, escaping each double quote with a backslash.
+         * @param text The text to emit.
+         * @return This emitter.
+         */
+        DotEmitter appendQuoted(String text) {
+            return this.appendText(text, true);
+        }
+
+        /**
+         * Emit the specified number in decimal, with its digits grouped in thousands by commas.
+         * @param number The number to emit, which must not be negative.
+         * @return This emitter.
+         */
+        DotEmitter appendGrouped(long number) {
+            if (number < 1000) {
+                return this.append(number);
+            }
+            this.appendGrouped(number / 1000).append(',');
+            long group = number % 1000;
+            if (group < 100) {
+                this.append('0');
+            }
+            if (group < 10) {
+                this.append('0');
+            }
+            return this.append(group);
+        }
+
+        /**
+         * Emit the specified text, encoded as UTF-8.
+         * @param text The text to emit.
+         * @param escapeQuotes Whether to precede each double quote with a backslash.
+         * @return This emitter.
+         */
+        private DotEmitter appendText(String text, boolean escapeQuotes) {
+            int length = text.length();
+            this.ensureCapacity(length * MAX_BYTES_PER_CHAR);
+            ByteBuffer out = this.buffer;
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"' && escapeQuotes) {
+                        out.put((byte) '\\');
+                    }
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | (c >> 6)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else if (!Character.isSurrogate(c)) {
+                    out.put((byte) (0xE0 | (c >> 12)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    out.put((byte) (0xF0 | (codePoint >> 18)));
+                    out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    out.put((byte) '?');
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Emit the specified ASCII character.
+         * @param c The character to emit, which must be ASCII.
+         * @return This emitter.
+         */
+        DotEmitter append(char c) {
+            this.ensureCapacity(1);
+            this.buffer.put((byte) c);
+            return this;
+        }
+
+        /**
+         * Emit the specified number in decimal.
+         * @param number The number to emit.
+         * @return This emitter.
+         */
+        DotEmitter append(long number) {
+            if (number < 0) {
+                return this.append(Long.toString(number));
+            }
+            int digitCount = 0;
+            do {
+                this.digits[digitCount++] = (byte) ('0' + number % 10);
+                number /= 10;
+            } while (number != 0);
+            this.ensureCapacity(digitCount);
+            while (digitCount > 0) {
+                this.buffer.put(this.digits[--digitCount]);
+            }
+            return this;
+        }
+
+        /**
+         * Write everything emitted since the last call to the specified writer, and empty the buffer for reuse.
+         * @param writer The writer to which to write.
+         */
+        void writeTo(ChannelWriter writer) throws IOException {
+            this.buffer.flip();
+            writer.write(this.buffer);
+            this.buffer.clear();
+        }
+
+        /**
+         * Grow the buffer if necessary so that at least the specified number of bytes can be emitted into it.
+         * @param byteCount The number of bytes about to be emitted.
+         */
+        private void ensureCapacity(int byteCount) {
+            if (this.buffer.remaining() < byteCount) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2,
+                        this.buffer.position() + byteCount));
+                this.buffer.flip();
+                this.buffer = grown.put(this.buffer);
+            }
+        }
+    }
+    //endregion
+
+    //region Asynchronous writing
+    /**
+     * Policies for handling operations recorded while the writer thread's queue is full.
+     */
+    public enum QueueFullPolicy {
+        /** Wait for the writer thread to make space in the queue. */
+        BLOCK,
+        /** Discard operations without diagrammes, and wait for space for those with diagrammes. */
+        DROP_NON_DIAGRAMMES,
+        /**
+         * Merge the operation into the most recently queued record.  Consecutive diagrammes are merged into the last
+         * one, which highlights all of the modifications made by the merged operations.
+         */
+        COALESCE
+    }
+
+    /**
+     * Header line of a single logged operation, captured on the thread that performed it.
+     */
+    private static class OperationHeader {
+        /** The name of the operation, including its arguments. */
+        private final String name;
+        /** The time in milliseconds since the epoch at which the operation was performed. */
+        private final long timeMillis;
+        /** The name of the file from which the operation was called. */
+        private final String fileName;
+        /** The line from which the operation was called. */
+        private final int lineNumber;
+        /** Whether the operation modifies the list and is followed by a diagramme. */
+        private final boolean diagramme;
+        /**
+         * HTML summary of the operations coalesced into this entry and any violations of the list's invariants, or
+         * null if there is nothing to summarise.
+         */
+        private final String summary;
+        /** The name of the thread that performed the operation, or null unless the view is thread-safe. */
+        private String threadName;
+        /** The position of the operation among those on every thread-safe view, or -1 if the view is not. */
+        private long sequenceNumber = -1;
+
+        /**
+         * @param name The name of the operation, including its arguments.
+         * @param timeMillis The time in milliseconds since the epoch at which the operation was performed.
+         * @param fileName The name of the file from which the operation was called.
+         * @param lineNumber The line from which the operation was called.
+         * @param diagramme Whether the operation modifies the list and is followed by a diagramme.
+         * @param summary HTML summary of the operations coalesced into this entry and any violations of the list's
+         *                invariants, or null if there is nothing to summarise.
+         */
+        OperationHeader(String name, long timeMillis, String fileName, int lineNumber, boolean diagramme,
+                        String summary) {
+            this.name = name;
+            this.timeMillis = timeMillis;
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+            this.diagramme = diagramme;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * One or more operations to be written to the transcript, followed by an optional diagramme of the list after the
+     * last of them.  Records hold more than one operation only if they were coalesced while the queue was full.
+     */
+    private class OperationRecord {
+        /** Headers of the operations in this record, in the order in which they were performed. */
+        private final ArrayList<OperationHeader> headers = new ArrayList<>(1);
+        /** Snapshot of the list after the last operation, or null if no diagramme should be drawn. */
+        private Snapshot snapshot;
+
+        /**
+         * @param header The header of the operation, or null if only a diagramme should be written.
+         * @param snapshot The snapshot of the list after the operation, or null if no diagramme should be drawn.
+         */
+        OperationRecord(OperationHeader header, Snapshot snapshot) {
+            if (header != null) {
+                this.headers.add(header);
+            }
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * @return The view of the list whose operations this record describes.
+         */
+        LinkedListView<E> getList() {
+            return LinkedListView.this;
+        }
+
+        /**
+         * Merge the specified record, which was created after this one, into this record.  If both records have
+         * diagrammes, only the newer one is retained, and it highlights modifications relative to the snapshot that
+         * preceded this record's.
+         *
+         * @param newer The record to merge into this one.
+         */
+        void coalesce(OperationRecord newer) {
+            this.headers.addAll(newer.headers);
+            if (newer.snapshot != null) {
+                if (this.snapshot != null) {
+                    newer.snapshot.previous = this.snapshot.previous;
+                }
+                this.snapshot = newer.snapshot;
+            }
+        }
+    }
+
+    /**
+     * Bounded ring buffer of records waiting to be written by the writer thread.
+     */
+    private class RecordQueue {
+        /** Records in the queue, stored circularly starting at index head. */
+        private final Object[] records;
+        /** Index of the oldest record in the queue. */
+        private int head = 0;
+        /** Number of records in the queue. */
+        private int count = 0;
+        /** Whether the queue has been closed to new records. */
+        private boolean closed = false;
+        /** Number of operations discarded since the writer thread last checked. */
+        private long droppedCount = 0;
+        /** Policy for handling records submitted while the queue is full. */
+        private final QueueFullPolicy fullPolicy;
+
+        /** Lock guarding all of the above state. */
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Signalled when a record is added to the queue or the queue is closed. */
+        private final Condition notEmpty = this.lock.newCondition();
+        /** Signalled when records are removed from the queue. */
+        private final Condition notFull = this.lock.newCondition();
+
+        /**
+         * @param capacity The maximum number of records that can be queued.
+         * @param fullPolicy The policy for handling records submitted while the queue is full.
+         */
+        RecordQueue(int capacity, QueueFullPolicy fullPolicy) {
+            this.records = new Object[capacity];
+            this.fullPolicy = fullPolicy;
+        }
+
+        /**
+         * Add the specified record to the queue, handling it according to fullPolicy if the queue is full.
+         * @param record The record to add.
+         */
+        void put(OperationRecord record) {
+            this.lock.lock();
+            try {
+                while (this.count == this.records.length && !this.closed) {
+                    if (this.fullPolicy == QueueFullPolicy.DROP_NON_DIAGRAMMES && record.snapshot == null) {
+                        this.droppedCount += record.headers.size();
+                        return;
+                    } else if (this.fullPolicy == QueueFullPolicy.COALESCE
+                            && this.newest().getList() == record.getList()) {
+                        this.newest().coalesce(record);
+                        return;
+                    }
+                    this.notFull.awaitUninterruptibly();
+                }
+
+                if (this.closed) {
+                    LOGGER.warning("Operation performed after LinkedListView was closed.");
+                    return;
+                }
+                this.records[(this.head + this.count) % this.records.length] = record;
+                this.count++;
+                this.notEmpty.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * @return The most recently queued record, which must exist.
+         */
+        @SuppressWarnings("unchecked")
+        private OperationRecord newest() {
+            return (OperationRecord) this.records[(this.head + this.count - 1) % this.records.length];
+        }
+
+        /**
+         * Wait until the queue is non-empty or closed, then move every queued record into the specified list.
+         * @param batch The list into which to move the records.
+         * @return true if records were moved, or false if the queue is closed and empty.
+         */
+        @SuppressWarnings("unchecked")
+        boolean takeAll(ArrayList<OperationRecord> batch) {
+            this.lock.lock();
+            try {
+                while (this.count == 0) {
+                    if (this.closed) {
+                        return false;
+                    }
+                    this.notEmpty.awaitUninterruptibly();
+                }
+
+                for (; this.count > 0; this.count--) {
+                    batch.add((OperationRecord) this.records[this.head]);
+                    this.records[this.head] = null;
+                    this.head = (this.head + 1) % this.records.length;
+                }
+                this.notFull.signalAll();
+                return true;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * @return The number of operations discarded since the last call to this method.
+         */
+        long takeDroppedCount() {
+            this.lock.lock();
+            try {
+                long dropped = this.droppedCount;
+                this.droppedCount = 0;
+                return dropped;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Close the queue to new records and wake the writer thread so that it can finish writing those remaining.
+         */
+        void close() {
+            this.lock.lock();
+            try {
+                this.closed = true;
+                this.notEmpty.signalAll();
+                this.notFull.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+    //endregion
+
+    //region Binary traces
+    /**
+     * Formats in which the transcript can be written.
+     */
+    public enum OutputFormat {
+        /** An HTML document that can be opened directly in a web browser. */
+        HTML,
+        /**
+         * A compact binary trace that must be converted to HTML with convertTrace() before it can be viewed, but which
+         * is much cheaper to write and can be read one operation at a time with a TraceReader.
+         */
+        BINARY
+    }
+
+    /**
+     * Writer of binary traces.  Diagrammes are stored as the same keyframes and deltas as in delta mode, but node IDs
+     * and references are encoded as unsigned LEB128 varints and every distinct string is stored only once.  A trace has
+     * the following structure, in which unmarked integers are varints, refs are 0 for null or an index plus 1, and
+     * strings are numbered in the order in which they are defined:
+     * <pre>
+     * trace       := "LLVT" version:u8 headName:utf8 hasTail:u8 [tailName:utf8] highlight:u8 startMillis record*
+     *                stringIndex recordIndex trailer
+     * record      := STRING utf8
+     *              | OPERATIONS headerCount header* hasFrame:u8 [frame]
+     *              | DROPPED count
+     * header      := nameRef timeMillis fileNameRef lineNumber:zigzag diagramme:u8 summaryRef threadRef sequence
+     * frame       := keyframe:u8 listRef headRef tailRef nodeCount (id prevRef labelRef nextRef)* removedCount id*
+     * utf8        := length bytes
+     * stringIndex := offset:u64*   one per STRING record
+     * recordIndex := offset:u64*   one per OPERATIONS or DROPPED record
+     * trailer     := stringIndexOffset:u64 stringCount:u32 recordIndexOffset:u64 recordCount:u32 "LLVT"
+     * </pre>
+     * The sequence of an operation is 0 if its view was not thread-safe, or its sequence number plus 1; version 1
+     * traces have neither it nor the thread name.  The list of a frame is null for the root view, or the name of the
+     * sub-list view of which it is a diagramme; version 2 and earlier traces do not have it.  Every string is defined
+     * before the first record that refers to it, so a TraceReader can decode any record using only the indices in the
+     * footer.
+     */
+    private class TraceWriter {
+        /** Capacity of the output buffer in bytes. */
+        private static final int BUFFER_SIZE = 1 << 16;
+        /** Initial capacity of the string and record indices. */
+        private static final int INITIAL_INDEX_CAPACITY = 64;
+
+        /** Channel to which to write the trace. */
+        private final FileChannel channel;
+        /** Buffer of encoded bytes not yet written to the channel. */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /** Number of bytes written to the channel thus far. */
+        private long channelPosition;
+        /** Index of each string defined thus far. */
+        private final HashMap<String, Integer> stringIndices = new HashMap<>();
+        /** Offset of the STRING record of each string defined thus far. */
+        private long[] stringOffsets = new long[INITIAL_INDEX_CAPACITY];
+        /** Offset of each OPERATIONS or DROPPED record written thus far. */
+        private long[] recordOffsets = new long[INITIAL_INDEX_CAPACITY];
+        /** Number of OPERATIONS or DROPPED records written thus far. */
+        private int recordCount;
+        /** Number of frames between keyframes. */
+        private final int keyframeInterval;
+        /** Number of delta frames written since the last keyframe. */
+        private int framesSinceKeyframe;
+        /** Nodes to be written in the current frame, reused between frames. */
+        private final ArrayList<DotListNode> frameNodes = new ArrayList<>();
+
+        /**
+         * Create a new trace in the specified file, replacing any existing contents, and write its header.
+         * @param fileName The name of the file to which to write.
+         * @param keyframeInterval The number of frames between keyframes.
+         */
+        TraceWriter(String fileName, int keyframeInterval) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.keyframeInterval = keyframeInterval;
+
+            this.ensureCapacity(TRACE_MAGIC.length + 1);
+            this.buffer.put(TRACE_MAGIC).put(TRACE_VERSION);
+            this.writeUtf8(schema.headName);
+            this.writeByte(schema.hasTail() ? 1 : 0);
+            if (schema.hasTail()) {
+                this.writeUtf8(schema.tailName);
+            }
+            this.writeByte(highlightModifications ? 1 : 0);
+            this.writeVarLong(System.currentTimeMillis());
+        }
+
+        /**
+         * Write the headers and frame of the specified record to the trace.
+         * @param record The record to write.
+         */
+        void writeRecord(OperationRecord record) throws IOException {
+            Snapshot snapshot = record.snapshot;
+            Map<Object, DotListNode> lastDotNodes = Collections.emptyMap();
+            boolean keyframe = false;
+
+            // Define every string that the record refers to before the record itself
+            for (OperationHeader header : record.headers) {
+                this.defineString(header.name);
+                this.defineString(header.fileName);
+                this.defineString(header.summary);
+                this.defineString(header.threadName);
+            }
+            this.frameNodes.clear();
+            if (snapshot != null) {
+                lastDotNodes = snapshot.getPreviousDotNodes();
+                this.defineString(snapshot.getList().listName);
+                keyframe = this.framesSinceKeyframe == 0;
+                this.framesSinceKeyframe = (this.framesSinceKeyframe + 1) % this.keyframeInterval;
+                for (DotListNode node : snapshot.dotNodes.values()) {
+                    DotListNode lastNode = lastDotNodes.get(node.baseNode);
+                    if (keyframe || lastNode == null || node.isModifiedSince(lastNode)) {
+                        this.frameNodes.add(node);
+                        this.defineString(node.getLabel());
+                    }
+                }
+            }
+
+            this.beginRecord(TRACE_OPERATIONS);
+            this.writeVarLong(record.headers.size());
+            for (OperationHeader header : record.headers) {
+                this.writeVarLong(this.stringRef(header.name));
+                this.writeVarLong(header.timeMillis);
+                this.writeVarLong(this.stringRef(header.fileName));
+                // Zigzag encode the line number, which is negative if unknown
+                this.writeVarLong((header.lineNumber << 1) ^ (header.lineNumber >> 31));
+                this.writeByte(header.diagramme ? 1 : 0);
+                this.writeVarLong(this.stringRef(header.summary));
+                this.writeVarLong(this.stringRef(header.threadName));
+                this.writeVarLong(header.sequenceNumber + 1);
+            }
+
+            this.writeByte(snapshot == null ? 0 : 1);
+            if (snapshot != null) {
+                this.writeByte(keyframe ? 1 : 0);
+                this.writeVarLong(this.stringRef(snapshot.getList().listName));
+                this.writeVarLong(nodeRef(snapshot.headNode));
+                this.writeVarLong(nodeRef(snapshot.tailNode));
+                this.writeVarLong(this.frameNodes.size());
+                for (DotListNode node : this.frameNodes) {
+                    this.writeVarLong(node.getId());
+                    this.writeVarLong(nodeRef(snapshot.dotNodes.get(node.getPrevNode())));
+                    this.writeVarLong(this.stringRef(node.getLabel()));
+                    this.writeVarLong(nodeRef(snapshot.dotNodes.get(node.getNextNode())));
+                }
+
+                int removedCount = 0;
+                if (!keyframe) {
+                    for (Object lastNode : lastDotNodes.keySet()) {
+                        if (!snapshot.dotNodes.containsKey(lastNode)) {
+                            removedCount++;
+                        }
+                    }
+                }
+                this.writeVarLong(removedCount);
+                if (removedCount > 0) {
+                    for (DotListNode lastNode : lastDotNodes.values()) {
+                        if (!snapshot.dotNodes.containsKey(lastNode.baseNode)) {
+                            this.writeVarLong(lastNode.getId());
+                        }
+                    }
+                }
+            }
+            this.frameNodes.clear();
+        }
+
+        /**
+         * Write a record of the number of operations that were dropped because the writer thread fell behind.
+         * @param droppedCount The number of operations dropped.
+         */
+        void writeDroppedCount(long droppedCount) throws IOException {
+            this.beginRecord(TRACE_DROPPED);
+            this.writeVarLong(droppedCount);
+        }
+
+        /**
+         * Write the contents of the output buffer to the trace.
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channelPosition += this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Write the footer of the trace and close it.
+         */
+        void close() throws IOException {
+            int stringCount = this.stringIndices.size();
+            long stringIndexOffset = this.position();
+            for (int i = 0; i < stringCount; i++) {
+                this.ensureCapacity(Long.BYTES);
+                this.buffer.putLong(this.stringOffsets[i]);
+            }
+            long recordIndexOffset = this.position();
+            for (int i = 0; i < this.recordCount; i++) {
+                this.ensureCapacity(Long.BYTES);
+                this.buffer.putLong(this.recordOffsets[i]);
+            }
+            this.ensureCapacity(TRACE_TRAILER_SIZE);
+            this.buffer.putLong(stringIndexOffset).putInt(stringCount)
+                    .putLong(recordIndexOffset).putInt(this.recordCount)
+                    .put(TRACE_MAGIC);
+            this.flush();
+            this.channel.close();
+        }
+
+        /**
+         * @return The offset in the trace at which the next byte will be written.
+         */
+        private long position() {
+            return this.channelPosition + this.buffer.position();
+        }
+
+        /**
+         * Ensure that the output buffer has space for the specified number of bytes, flushing it if necessary.
+         * @param bytes The number of bytes about to be written.
+         */
+        private void ensureCapacity(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        /**
+         * Record the offset of a new record in the record index and write its kind.
+         * @param kind The kind of the record.
+         */
+        private void beginRecord(byte kind) throws IOException {
+            if (this.recordCount == this.recordOffsets.length) {
+                this.recordOffsets = Arrays.copyOf(this.recordOffsets, this.recordCount * 2);
+            }
+            this.recordOffsets[this.recordCount++] = this.position();
+            this.writeByte(kind);
+        }
+
+        /**
+         * Write a STRING record defining the specified string if it has not already been defined.
+         * @param value The string to define, or null.
+         */
+        private void defineString(String value) throws IOException {
+            if (value == null || this.stringIndices.containsKey(value)) {
+                return;
+            }
+            int index = this.stringIndices.size();
+            if (index == this.stringOffsets.length) {
+                this.stringOffsets = Arrays.copyOf(this.stringOffsets, index * 2);
+            }
+            this.stringOffsets[index] = this.position();
+            this.stringIndices.put(value, index);
+            this.writeByte(TRACE_STRING);
+            this.writeUtf8(value);
+        }
+
+        /**
+         * @param value A string that has been defined, or null.
+         * @return The reference by which to write the string.
+         */
+        private int stringRef(String value) {
+            return (value == null) ? 0 : this.stringIndices.get(value) + 1;
+        }
+
+        /**
+         * @param value The byte to write.
+         */
+        private void writeByte(int value) throws IOException {
+            this.ensureCapacity(1);
+            this.buffer.put((byte) value);
+        }
+
+        /**
+         * Write the specified value as an unsigned LEB128 varint.
+         * @param value The value to write, which is treated as unsigned.
+         */
+        private void writeVarLong(long value) throws IOException {
+            this.ensureCapacity(MAX_VARLONG_BYTES);
+            while ((value & ~0x7FL) != 0) {
+                this.buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            this.buffer.put((byte) value);
+        }
+
+        /**
+         * Write the specified string as its length in bytes followed by its UTF-8 encoding.
+         * @param value The string to write.
+         */
+        private void writeUtf8(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.writeVarLong(bytes.length);
+            if (bytes.length <= BUFFER_SIZE) {
+                this.ensureCapacity(bytes.length);
+                this.buffer.put(bytes);
+            } else {
+                // Too large to buffer: write directly to the channel
+                this.flush();
+                ByteBuffer direct = ByteBuffer.wrap(bytes);
+                while (direct.hasRemaining()) {
+                    this.channelPosition += this.channel.write(direct);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param node A node in a snapshot, or null.
+     * @return The reference by which to write the node to a binary trace.
+     */
+    private static long nodeRef(LinkedListView<?>.DotListNode node) {
+        return (node == null) ? 0 : node.getId() + 1;
+    }
+
+    /**
+     * Random-access reader of binary traces written with OutputFormat.BINARY.  The trace is memory-mapped, and any
+     * record can be decoded in constant time using the indices in its footer.
+     */
+    public static class TraceReader implements AutoCloseable {
+        /** Channel from which the trace is mapped. */
+        private final FileChannel channel;
+        /** The contents of the trace. */
+        private final ByteBuffer trace;
+        /** The name of the list's header node. */
+        private final String headName;
+        /** The name of the list's tail node, or null if the list has no tail. */
+        private final String tailName;
+        /** Whether modifications were highlighted by the view that wrote the trace. */
+        private final boolean highlightModifications;
+        /** The time in milliseconds since the epoch at which the trace was started. */
+        private final long startMillis;
+        /** Offset of the string index. */
+        private final int stringIndexOffset;
+        /** Strings decoded thus far, by index. */
+        private final String[] strings;
+        /** Offset of the record index. */
+        private final int recordIndexOffset;
+        /** Number of records in the trace. */
+        private final int recordCount;
+        /** Version of the trace format in which the trace is written. */
+        private final byte version;
+
+        /**
+         * Open the specified trace.
+         * @param fileName The name of the file containing the trace.
+         * @throws IOException If the file could not be read or is not a complete binary trace.
+         */
+        public TraceReader(String fileName) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            try {
+                long size = this.channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Trace is too large to map: " + fileName);
+                }
+                if (size < TRACE_MAGIC.length + 1 + TRACE_TRAILER_SIZE) {
+                    throw new IOException("Not a complete binary trace: " + fileName);
+                }
+                this.trace = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                int trailerOffset = (int) size - TRACE_TRAILER_SIZE;
+                if (!this.hasMagic(0) || !this.hasMagic((int) size - TRACE_MAGIC.length)) {
+                    throw new IOException("Not a complete binary trace: " + fileName);
+                }
+                this.version = this.trace.get(TRACE_MAGIC.length);
+                if (this.version < TRACE_VERSION_WITHOUT_THREADS || this.version > TRACE_VERSION) {
+                    throw new IOException("Unsupported binary trace version: " + fileName);
+                }
+
+                this.stringIndexOffset = (int) this.trace.getLong(trailerOffset);
+                this.strings = new String[this.trace.getInt(trailerOffset + Long.BYTES)];
+                this.recordIndexOffset = (int) this.trace.getLong(trailerOffset + Long.BYTES + Integer.BYTES);
+                this.recordCount = this.trace.getInt(trailerOffset + 2 * Long.BYTES + Integer.BYTES);
+
+                Cursor header = new Cursor(this.trace, TRACE_MAGIC.length + 1);
+                this.headName = header.readUtf8();
+                this.tailName = (header.readByte() != 0) ? header.readUtf8() : null;
+                this.highlightModifications = header.readByte() != 0;
+                this.startMillis = header.readVarLong();
+            } catch (IOException | RuntimeException e) {
+                this.channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @param offset An offset in the trace.
+         * @return true if the trace magic number is at the specified offset, false otherwise.
+         */
+        private boolean hasMagic(int offset) {
+            for (int i = 0; i < TRACE_MAGIC.length; i++) {
+                if (this.trace.get(offset + i) != TRACE_MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return The name of the list's header node.
+         */
+        public String getHeadName() {
+            return this.headName;
+        }
+
+        /**
+         * @return The name of the list's tail node, or null if the list has no tail.
+         */
+        public String getTailName() {
+            return this.tailName;
+        }
+
+        /**
+         * @return Whether modifications were highlighted by the view that wrote the trace.
+         */
+        public boolean isHighlightModifications() {
+            return this.highlightModifications;
+        }
+
+        /**
+         * @return The time in milliseconds since the epoch at which the trace was started.
+         */
+        public long getStartMillis() {
+            return this.startMillis;
+        }
+
+        /**
+         * @return The number of records in the trace.
+         */
+        public int getRecordCount() {
+            return this.recordCount;
+        }
+
+        /**
+         * Decode the record at the specified index.  Each record holds one or more operations and the frame that
+         * follows them, or the number of operations dropped because the writer thread fell behind.
+         *
+         * @param index The index of the record, from 0 to getRecordCount() - 1.
+         * @return The decoded record.
+         * @throws IOException If the record is corrupt.
+         */
+        public TraceRecord readRecord(int index) throws IOException {
+            if (index < 0 || index >= this.recordCount) {
+                throw new IndexOutOfBoundsException("Record " + index + " of " + this.recordCount);
+            }
+            int recordOffset = (int) this.trace.getLong(this.recordIndexOffset + index * Long.BYTES);
+            Cursor cursor = new Cursor(this.trace, recordOffset);
+            byte kind = cursor.readByte();
+            if (kind == TRACE_DROPPED) {
+                return new TraceRecord(Collections.emptyList(), null, cursor.readVarLong());
+            } else if (kind != TRACE_OPERATIONS) {
+                throw new IOException("Corrupt binary trace: unexpected record kind " + kind);
+            }
+
+            int entryCount = (int) cursor.readVarLong();
+            ArrayList<TraceEntry> entries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                String name = this.readString(cursor);
+                long timeMillis = cursor.readVarLong();
+                String fileName = this.readString(cursor);
+                int zigzagLine = (int) cursor.readVarLong();
+                int lineNumber = (zigzagLine >>> 1) ^ -(zigzagLine & 1);
+                boolean modifying = cursor.readByte() != 0;
+                String summary = this.readString(cursor);
+                String threadName = null;
+                long sequenceNumber = -1;
+                if (this.version != TRACE_VERSION_WITHOUT_THREADS) {
+                    threadName = this.readString(cursor);
+                    sequenceNumber = cursor.readVarLong() - 1;
+                }
+                entries.add(new TraceEntry(name, timeMillis, fileName, lineNumber, modifying, summary, threadName,
+                        sequenceNumber));
+            }
+
+            TraceFrame frame = null;
+            if (cursor.readByte() != 0) {
+                boolean keyframe = cursor.readByte() != 0;
+                String listName = (this.version > TRACE_VERSION_WITHOUT_LISTS) ? this.readString(cursor) : null;
+                long headId = cursor.readVarLong() - 1;
+                long tailId = cursor.readVarLong() - 1;
+                int nodeCount = (int) cursor.readVarLong();
+                long[] nodeIds = new long[nodeCount];
+                long[] prevIds = new long[nodeCount];
+                String[] labels = new String[nodeCount];
+                long[] nextIds = new long[nodeCount];
+                for (int i = 0; i < nodeCount; i++) {
+                    nodeIds[i] = cursor.readVarLong();
+                    prevIds[i] = cursor.readVarLong() - 1;
+                    labels[i] = this.readString(cursor);
+                    nextIds[i] = cursor.readVarLong() - 1;
+                }
+                long[] removedIds = new long[(int) cursor.readVarLong()];
+                for (int i = 0; i < removedIds.length; i++) {
+                    removedIds[i] = cursor.readVarLong();
+                }
+                frame = new TraceFrame(keyframe, listName, headId, tailId, nodeIds, prevIds, labels, nextIds,
+                        removedIds);
+            }
+            return new TraceRecord(entries, frame, 0);
+        }
+
+        /**
+         * Read a string reference and return the string to which it refers.
+         * @param cursor The cursor from which to read the reference.
+         * @return The referenced string, or null if the reference is null.
+         * @throws IOException If the reference is invalid.
+         */
+        private String readString(Cursor cursor) throws IOException {
+            int ref = (int) cursor.readVarLong();
+            if (ref == 0) {
+                return null;
+            } else if (ref > this.strings.length) {
+                throw new IOException("Corrupt binary trace: string " + (ref - 1) + " of " + this.strings.length);
+            }
+            String value = this.strings[ref - 1];
+            if (value == null) {
+                Cursor definition = new Cursor(this.trace,
+                        (int) this.trace.getLong(this.stringIndexOffset + (ref - 1) * Long.BYTES));
+                if (definition.readByte() != TRACE_STRING) {
+                    throw new IOException("Corrupt binary trace: string " + (ref - 1) + " is not defined");
+                }
+                value = definition.readUtf8();
+                this.strings[ref - 1] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+
+        /**
+         * Sequential decoder of the values at a position in a trace.
+         */
+        private static class Cursor {
+            /** The contents of the trace. */
+            private final ByteBuffer trace;
+            /** The offset of the next value to decode. */
+            private int position;
+
+            /**
+             * @param trace The contents of the trace.
+             * @param position The offset of the first value to decode.
+             */
+            Cursor(ByteBuffer trace, int position) {
+                this.trace = trace;
+                this.position = position;
+            }
+
+            /**
+             * @return The next byte.
+             */
+            byte readByte() {
+                return this.trace.get(this.position++);
+            }
+
+            /**
+             * @return The next unsigned LEB128 varint.
+             * @throws IOException If the varint is too long.
+             */
+            long readVarLong() throws IOException {
+                long value = 0;
+                for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                    byte b = this.readByte();
+                    value |= (long) (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        return value;
+                    }
+                }
+                throw new IOException("Corrupt binary trace: varint too long at offset " + this.position);
+            }
+
+            /**
+             * @return The next length-prefixed UTF-8 string.
+             * @throws IOException If the length is invalid.
+             */
+            String readUtf8() throws IOException {
+                int length = (int) this.readVarLong();
+                byte[] bytes = new byte[length];
+                ByteBuffer view = this.trace.duplicate();
+                view.position(this.position);
+                view.get(bytes);
+                this.position += length;
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * A record decoded from a binary trace.
+     */
+    public static class TraceRecord {
+        /** The operations in this record, in the order in which they were performed. */
+        private final List<TraceEntry> entries;
+        /** The frame drawn after the operations, or null if there is none. */
+        private final TraceFrame frame;
+        /** The number of operations dropped before this record, or 0 if this record holds operations. */
+        private final long droppedCount;
+
+        /**
+         * @param entries The operations in this record, in the order in which they were performed.
+         * @param frame The frame drawn after the operations, or null if there is none.
+         * @param droppedCount The number of operations dropped, or 0 if this record holds operations.
+         */
+        TraceRecord(List<TraceEntry> entries, TraceFrame frame, long droppedCount) {
+            this.entries = entries;
+            this.frame = frame;
+            this.droppedCount = droppedCount;
+        }
+
+        /**
+         * @return The operations in this record, in the order in which they were performed.
+         */
+        public List<TraceEntry> getEntries() {
+            return Collections.unmodifiableList(this.entries);
+        }
+
+        /**
+         * @return The frame drawn after the operations, or null if there is none.
+         */
+        public TraceFrame getFrame() {
+            return this.frame;
+        }
+
+        /**
+         * @return The number of operations dropped because the writer thread fell behind, or 0 if this record holds
+         *         operations.
+         */
+        public long getDroppedCount() {
+            return this.droppedCount;
+        }
+    }
+
+    /**
+     * A single operation decoded from a binary trace.
+     */
+    public static class TraceEntry {
+        /** The name of the operation, including its arguments. */
+        private final String name;
+        /** The time in milliseconds since the epoch at which the operation was performed. */
+        private final long timeMillis;
+        /** The name of the file from which the operation was called, or null if unknown. */
+        private final String fileName;
+        /** The line from which the operation was called, or a negative number if unknown. */
+        private final int lineNumber;
+        /** Whether the operation modified the list. */
+        private final boolean modifying;
+        /** HTML summary of the operations coalesced into this entry, or null if it is a single operation. */
+        private final String summary;
+        /** The name of the thread that performed the operation, or null if it was not recorded. */
+        private final String threadName;
+        /** The position of the operation among those on every thread-safe view, or -1 if it was not recorded. */
+        private final long sequenceNumber;
+
+        /**
+         * @param name The name of the operation, including its arguments.
+         * @param timeMillis The time in milliseconds since the epoch at which the operation was performed.
+         * @param fileName The name of the file from which the operation was called, or null if unknown.
+         * @param lineNumber The line from which the operation was called, or a negative number if unknown.
+         * @param modifying Whether the operation modified the list.
+         * @param summary HTML summary of the operations coalesced into this entry, or null if it is a single operation.
+         * @param threadName The name of the thread that performed the operation, or null if it was not recorded.
+         * @param sequenceNumber The position of the operation among those on every thread-safe view, or -1.
+         */
+        TraceEntry(String name, long timeMillis, String fileName, int lineNumber, boolean modifying, String summary,
+                   String threadName, long sequenceNumber) {
+            this.name = name;
+            this.timeMillis = timeMillis;
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+            this.modifying = modifying;
+            this.summary = summary;
+            this.threadName = threadName;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        /**
+         * @return The name of the operation, including its arguments.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return The time in milliseconds since the epoch at which the operation was performed.
+         */
+        public long getTimeMillis() {
+            return this.timeMillis;
+        }
+
+        /**
+         * @return The name of the file from which the operation was called, or null if unknown.
+         */
+        public String getFileName() {
+            return this.fileName;
+        }
+
+        /**
+         * @return The line from which the operation was called, or a negative number if unknown.
+         */
+        public int getLineNumber() {
+            return this.lineNumber;
+        }
+
+        /**
+         * @return Whether the operation modified the list.
+         */
+        public boolean isModifying() {
+            return this.modifying;
+        }
+
+        /**
+         * @return HTML summary of the operations coalesced into this entry, or null if it is a single operation.
+         */
+        public String getSummary() {
+            return this.summary;
+        }
+
+        /**
+         * @return The name of the thread that performed the operation, or null if the view was not thread-safe.
+         */
+        public String getThreadName() {
+            return this.threadName;
+        }
+
+        /**
+         * @return The position of the operation among those on every thread-safe view, or -1 if the view was not
+         *         thread-safe.
+         */
+        public long getSequenceNumber() {
+            return this.sequenceNumber;
+        }
+    }
+
+    /**
+     * A diagramme decoded from a binary trace.  Keyframes contain every node of the list; other frames contain only the
+     * nodes added or modified since the previous frame, and the IDs of the nodes removed since then.  Node IDs are
+     * stable across frames, and null references are represented by -1.
+     */
+    public static class TraceFrame {
+        /** Whether this frame contains every node of the list. */
+        private final boolean keyframe;
+        /** The name of the sub-list view of which this frame is a diagramme, or null for the root view. */
+        private final String listName;
+        /** The ID of the node referenced by the list's header, or -1 if null. */
+        private final long headId;
+        /** The ID of the node referenced by the list's tail, or -1 if null or if the list has no tail. */
+        private final long tailId;
+        /** The ID of each node in this frame. */
+        private final long[] nodeIds;
+        /** The ID of the previous node of each node in this frame, or -1 if null. */
+        private final long[] prevIds;
+        /** The Dot record label of each node in this frame. */
+        private final String[] labels;
+        /** The ID of the next node of each node in this frame, or -1 if null. */
+        private final long[] nextIds;
+        /** The IDs of the nodes removed since the previous frame. */
+        private final long[] removedIds;
+
+        /**
+         * @param keyframe Whether this frame contains every node of the list.
+         * @param listName The name of the sub-list view of which this frame is a diagramme, or null for the root view.
+         * @param headId The ID of the node referenced by the list's header, or -1 if null.
+         * @param tailId The ID of the node referenced by the list's tail, or -1.
+         * @param nodeIds The ID of each node in this frame.
+         * @param prevIds The ID of the previous node of each node in this frame, or -1 if null.
+         * @param labels The Dot record label of each node in this frame.
+         * @param nextIds The ID of the next node of each node in this frame, or -1 if null.
+         * @param removedIds The IDs of the nodes removed since the previous frame.
+         */
+        TraceFrame(boolean keyframe, String listName, long headId, long tailId, long[] nodeIds, long[] prevIds,
+                   String[] labels, long[] nextIds, long[] removedIds) {
+            this.keyframe = keyframe;
+            this.listName = listName;
+            this.headId = headId;
+            this.tailId = tailId;
+            this.nodeIds = nodeIds;
+            this.prevIds = prevIds;
+            this.labels = labels;
+            this.nextIds = nextIds;
+            this.removedIds = removedIds;
+        }
+
+        /**
+         * @return Whether this frame contains every node of the list.
+         */
+        public boolean isKeyframe() {
+            return this.keyframe;
+        }
+
+        /**
+         * @return The name of the sub-list view of which this frame is a diagramme, such as "subList1", or null if it
+         *         is a diagramme of the list from which the trace was written.
+         */
+        public String getListName() {
+            return this.listName;
+        }
+
+        /**
+         * @return The ID of the node referenced by the list's header, or -1 if null.
+         */
+        public long getHeadId() {
+            return this.headId;
+        }
+
+        /**
+         * @return The ID of the node referenced by the list's tail, or -1 if null or if the list has no tail.
+         */
+        public long getTailId() {
+            return this.tailId;
+        }
+
+        /**
+         * @return The number of nodes in this frame.
+         */
+        public int getNodeCount() {
+            return this.nodeIds.length;
+        }
+
+        /**
+         * @param index The index of a node in this frame.
+         * @return The ID of the node.
+         */
+        public long getNodeId(int index) {
+            return this.nodeIds[index];
+        }
+
+        /**
+         * @param index The index of a node in this frame.
+         * @return The ID of the node's previous node, or -1 if null.
+         */
+        public long getPrevId(int index) {
+            return this.prevIds[index];
+        }
+
+        /**
+         * @param index The index of a node in this frame.
+         * @return The Dot record label of the node.
+         */
+        public String getLabel(int index) {
+            return this.labels[index];
+        }
+
+        /**
+         * @param index The index of a node in this frame.
+         * @return The ID of the node's next node, or -1 if null.
+         */
+        public long getNextId(int index) {
+            return this.nextIds[index];
+        }
+
+        /**
+         * @return The IDs of the nodes removed since the previous frame.
+         */
+        public long[] getRemovedIds() {
+            return this.removedIds.clone();
+        }
+    }
+
+    /**
+     * Convert a binary trace to an HTML transcript, which draws its diagrammes from the trace's keyframes and deltas
+     * in the same way as delta mode.
+     *
+     * @param traceFileName The name of the file containing the binary trace.
+     * @param htmlFileName The name of the file to which to write the HTML transcript.
+     * @throws IOException If the trace could not be read or the transcript could not be written.
+     */
+    public static void convertTrace(String traceFileName, String htmlFileName) throws IOException {
+        convertTrace(traceFileName, htmlFileName, new Options());
+    }
+
+    /**
+     * Convert a binary trace to an HTML transcript, which draws its diagrammes from the trace's keyframes and deltas
+     * in the same way as delta mode.  Only the rendering options are used; the rest are determined by the trace.
+     *
+     * @param traceFileName The name of the file containing the binary trace.
+     * @param htmlFileName The name of the file to which to write the HTML transcript.
+     * @param options The options with which to render the transcript's diagrammes.
+     * @throws IOException If the trace could not be read or the transcript could not be written.
+     */
+    public static void convertTrace(String traceFileName, String htmlFileName, Options options) throws IOException {
+        String rendererScripts = rendererScripts(options);
+        try (TraceReader trace = new TraceReader(traceFileName); Writer html = new ChannelWriter(htmlFileName)) {
+            String startTimestamp = formatTimestamp(trace.getStartMillis());
+            html.write(String.format(HTML_PREAMBLE, startTimestamp, rendererScripts, startTimestamp));
+            String tailName = (trace.getTailName() == null) ? "null" : jsonString(trace.getTailName());
+            html.write(String.format(DELTA_VIEWER_SCRIPT, jsonString(trace.getHeadName()), tailName,
+                    trace.isHighlightModifications()));
+
+            long diagrammeCount = 0;
+            for (int i = 0; i < trace.getRecordCount(); i++) {
+                TraceRecord record = trace.readRecord(i);
+                if (record.getDroppedCount() > 0) {
+                    html.write(String.format(DROPPED_OPERATIONS_NOTICE, record.getDroppedCount()));
+                }
+                for (TraceEntry entry : record.getEntries()) {
+                    String headerTag = entry.isModifying() ? "h2" : "h4";
+                    html.write(operationHeading(headerTag, entry.getName(), entry.getTimeMillis(),
+                            entry.getFileName(), entry.getLineNumber(), entry.getThreadName(),
+                            entry.getSequenceNumber()));
+                    if (entry.getSummary() != null) {
+                        html.write(String.format(OPERATION_SUMMARY, entry.getSummary()));
+                    }
+                }
+
+                TraceFrame frame = record.getFrame();
+                if (frame != null) {
+                    String operationId = "operation-" + diagrammeCount++;
+                    html.write(String.format(DELTA_DIAGRAMME_PREAMBLE, operationId, operationId));
+                    writeFrameJson(html, frame);
+                    html.write(DELTA_DIAGRAMME_POSTAMBLE);
+                }
+            }
+            html.write(HTML_POSTAMBLE);
+        }
+    }
+
+    /**
+     * Write the specified frame as a delta viewer frame of the form {"k":1,"l":list,"h":id,"t":id,"n":{...},"d":[...]},
+     * in which k and l are omitted unless the frame is a keyframe or of a sub-list view respectively.
+     * @param html The writer to which to write the frame.
+     * @param frame The frame to write.
+     */
+    private static void writeFrameJson(Writer html, TraceFrame frame) throws IOException {
+        html.write(frame.isKeyframe() ? "{\"k\":1," : "{");
+        if (frame.getListName() != null) {
+            html.write("\"l\":" + jsonString(frame.getListName()) + ",");
+        }
+        html.write("\"h\":");
+        html.write(jsonId(frame.getHeadId()));
+        html.write(",\"t\":");
+        html.write(jsonId(frame.getTailId()));
+        html.write(",\"n\":{");
+        for (int i = 0; i < frame.getNodeCount(); i++) {
+            html.write((i == 0 ? "\"" : ",\"") + frame.getNodeId(i) + "\":[");
+            html.write(jsonId(frame.getPrevId(i)));
+            html.write(",");
+            html.write(jsonString(frame.getLabel(i)));
+            html.write(",");
+            html.write(jsonId(frame.getNextId(i)));
+            html.write("]");
+        }
+        html.write("},\"d\":[");
+        long[] removedIds = frame.removedIds;
+        for (int i = 0; i < removedIds.length; i++) {
+            html.write((i == 0 ? "" : ",") + removedIds[i]);
+        }
+        html.write("]}");
+    }
+
+    /**
+     * @param id A node ID from a binary trace, or -1 for null.
+     * @return The ID as a JSON value.
+     */
+    private static String jsonId(long id) {
+        return (id < 0) ? "null" : Long.toString(id);
+    }
+
+    /**
+     * Convert a binary trace to an HTML transcript from the command line.  The file names may be preceded by --lazy to
+     * render diagrammes lazily, and by --renderer=FILE to embed a local copy of viz.js for lazy rendering.
+     *
+     * @param args The options, followed by the name of the binary trace and the name of the HTML file to write.
+     * @throws IOException If the trace could not be read or the transcript could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+        int argument = 0;
+        for (; argument < args.length && args[argument].startsWith("--"); argument++) {
+            if (args[argument].equals("--lazy")) {
+                options.setLazyRendering(true);
+            } else if (args[argument].startsWith("--renderer=")) {
+                options.setRendererScript(args[argument].substring("--renderer=".length()));
+            } else {
+                // Unknown option: print usage
+                argument = args.length;
+            }
+        }
+        if (args.length - argument != 2) {
+            System.err.println("Usage: java LinkedListView [--lazy] [--renderer=<viz.js file>] <trace file> "
+                    + "<HTML file>");
+            System.exit(2);
+        }
+        convertTrace(args[argument], args[argument + 1], options);
+    }
+    //endregion
+
+    //region List rendering
+    /**
+     * Write a GraphViz Dot representation of this list to htmlWriter.  If this view is asynchronous, the diagramme is
+     * captured immediately but written by the writer thread.
+     */
+    public void writeDiagramme() throws IllegalAccessException, IOException {
+        this.flushRun();
+        this.submitRecord(new OperationRecord(null, this.captureSnapshot()));
+    }
+
+    /**
+     * Capture the current structure of this list, to be highlighted relative to the previously captured snapshot.
+     * @return The captured snapshot.
+     */
+    private Snapshot captureSnapshot() {
+        this.lastSnapshot = new Snapshot(this.lastSnapshot);
+        return this.lastSnapshot;
+    }
+
+    /**
+     * Capture the current structure of this list after a modifying operation, and record it in the history if history
+     * is enabled.
+     *
+     * @param operation The number of the operation.
+     * @return The captured snapshot, or null if no diagramme should be drawn.
+     */
+    private Snapshot captureState(int operation) {
+        if (!this.drawDiagrammes && this.history == null) {
+            return null;
+        }
+        long startNanos = (this.operationEvent == null) ? 0 : System.nanoTime();
+        Snapshot snapshot = this.captureSnapshot();
+        if (this.history != null) {
+            this.recordState(snapshot, operation);
+        }
+        if (this.operationEvent != null) {
+            // Accumulated, as an operation can also end a coalesced entry and capture its state
+            this.operationEvent.snapshotDuration += System.nanoTime() - startNanos;
+        }
+        if (!this.drawDiagrammes) {
+            // The snapshot is never written, so nothing else will release the previous one
+            snapshot.previous = null;
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Record the current structure of this list in the history, if history is enabled, after a modifying operation
+     * whose diagramme is not drawn.  The snapshot is not kept as lastSnapshot, so the next diagramme still highlights
+     * and, in delta mode, encodes its changes relative to the last one drawn.
+     *
+     * @param operation The number of the operation.
+     */
+    private void recordUndrawnState(int operation) {
+        if (this.history != null) {
+            this.recordState(new Snapshot(null, this.lastSnapshot), operation);
+        }
+    }
+
+    /**
+     * Write a GraphViz Dot representation of the specified snapshot to htmlWriter.  The diagramme is emitted through
+     * dotEmitter, which is written to htmlWriter at least once per chunk of ranks and emptied before returning.
+     *
+     * @param snapshot The snapshot of the list to write.
+     */
+    private void writeDiagramme(Snapshot snapshot) throws IOException {
+        final String headerNodeName = "__HEADER_NAME";
+        final String tailNodeName = "__TAIL_NAME";
+        Map<Object, DotListNode> lastDotNodes = snapshot.getPreviousDotNodes();
+        Object lastHeadNode = (snapshot.previous == null) ? null : snapshot.previous.rawHeadNode;
+        Object lastTailNode = (snapshot.previous == null) ? null : snapshot.previous.rawTailNode;
+        DotEmitter out = this.dotEmitter;
+
+        this.appendExternalVariable(out, headerNodeName, this.schema.headName);
+        if (this.schema.hasTail()) {
+            this.appendExternalVariable(out, tailNodeName, this.schema.tailName);
+        }
+
+        // Draw only the nodes around changes if diagrammes are windowed
+        DiagrammeWindow window = (this.windowRadius < 0) ? null
+                : new DiagrammeWindow(snapshot, lastDotNodes, this.windowRadius);
+
+        // Print nodes at each level
+        if (window == null) {
+            this.writeRanks(snapshot.nodeLevels.size(),
+                    (chunk, start, end) -> this.appendRankedNodes(chunk, snapshot, lastDotNodes, start, end));
+        } else {
+            window.appendRankedNodes(out, lastDotNodes);
+        }
+
+        // Print edges
+        if (snapshot.headNode == null) {
+            this.appendNullExternalNode(out, headerNodeName, lastHeadNode);
+        } else {
+            out.append("  ").append(headerNodeName).append(" -> ").append(DotListNode.DOT_PREFIX)
+                    .append(snapshot.headNode.getId()).append(" [");
+            appendModifiedColour(out, "color", false, snapshot.rawHeadNode != lastHeadNode);
+            out.append(END_NODE_ATTRIBUTES);
+        }
+        if (this.schema.hasTail()) {
+            if (snapshot.tailNode == null) {
+                this.appendNullExternalNode(out, tailNodeName, lastTailNode);
+            } else {
+                out.append("  ").append(DotListNode.DOT_PREFIX).append(snapshot.tailNode.getId()).append(" -> ")
+                        .append(tailNodeName).append(" [dir=back,");
+                appendModifiedColour(out, "color", false, snapshot.rawTailNode != lastTailNode);
+                out.append(END_NODE_ATTRIBUTES);
+            }
+        }
+        out.append("  edge[tailclip=false,arrowtail=dot,dir=both").append(END_NODE_ATTRIBUTES);
+
+        if (window == null) {
+            this.writeRanks(snapshot.nodeLevels.size(),
+                    (chunk, start, end) -> this.appendRankedEdges(chunk, snapshot, lastDotNodes, start, end));
+        } else {
+            window.appendEdges(out, lastDotNodes);
+        }
+
+        // Write dummy edges
+        int rankCount = (window == null) ? snapshot.nodeLevels.size() : window.writtenRankCount;
+        if (rankCount > 1) {
+            out.append("  __DUMMY_0");
+            for (int i = 1; i < rankCount; i++) {
+                out.append(" -> __DUMMY_").append(i);
+            }
+            out.append(" [style=invis").append(END_NODE_ATTRIBUTES);
+        }
+        out.writeTo(htmlWriter);
+    }
+
+    /**
+     * Write a JSON frame describing the specified snapshot to htmlWriter for reconstruction by the delta viewer.
+     * Every keyframeInterval diagrammes, the frame is a keyframe containing every node in the list; otherwise, it
+     * contains only the nodes that were added or modified since the previous snapshot and the IDs of those that were
+     * removed.
+     *
+     * @param snapshot The snapshot of the list to write.
+     */
+    private void writeDeltaDiagramme(Snapshot snapshot) throws IOException {
+        Map<Object, DotListNode> lastDotNodes = snapshot.getPreviousDotNodes();
+        boolean keyframe = this.diagrammesSinceKeyframe == 0;
+        this.diagrammesSinceKeyframe = (this.diagrammesSinceKeyframe + 1) % this.keyframeInterval;
+
+        htmlWriter.write(keyframe ? "{\"k\":1," : "{");
+        if (snapshot.getList().listName != null) {
+            htmlWriter.write("\"l\":" + jsonString(snapshot.getList().listName) + ",");
+        }
+        Snapshot previous = snapshot.previous;
+        if (this.listsInSegment.add(snapshot.getList()) && previous != null) {
+            // The list's previous state was written to an earlier segment, which this one cannot see
+            htmlWriter.write("\"b\":{\"h\":");
+            htmlWriter.write(jsonId(previous.headNode));
+            htmlWriter.write(",\"t\":");
+            htmlWriter.write(jsonId(previous.tailNode));
+            htmlWriter.write(",\"n\":{");
+            boolean firstBaseNode = true;
+            for (DotListNode node : previous.dotNodes.values()) {
+                if (!firstBaseNode) {
+                    htmlWriter.write(",");
+                }
+                node.writeJson(htmlWriter, previous.dotNodes);
+                firstBaseNode = false;
+            }
+            htmlWriter.write("}},");
+        }
+        htmlWriter.write("\"h\":");
+        htmlWriter.write(jsonId(snapshot.headNode));
+        htmlWriter.write(",\"t\":");
+        htmlWriter.write(jsonId(snapshot.tailNode));
+        htmlWriter.write(",\"n\":{");
+        boolean firstNode = true;
+        for (DotListNode node : snapshot.dotNodes.values()) {
+            DotListNode lastNode = lastDotNodes.get(node.baseNode);
+            if (keyframe || lastNode == null || node.isModifiedSince(lastNode)) {
+                if (!firstNode) {
+                    htmlWriter.write(",");
+                }
+                node.writeJson(htmlWriter, snapshot.dotNodes);
+                firstNode = false;
+            }
+        }
+        htmlWriter.write("},\"d\":[");
+        boolean firstRemoved = true;
+        if (!keyframe) {
+            for (DotListNode lastNode : lastDotNodes.values()) {
+                if (!snapshot.dotNodes.containsKey(lastNode.baseNode)) {
+                    htmlWriter.write((firstRemoved ? "" : ",") + lastNode.getId());
+                    firstRemoved = false;
+                }
+            }
+        }
+        htmlWriter.write("]}");
+    }
+
+    /**
+     * Return the ID of the specified node as a JSON value.
+     * @param node The node whose ID to return, or null.
+     * @return The node's ID, or null if the node is null.
+     */
+    private String jsonId(DotListNode node) {
+        return (node == null) ? "null" : Long.toString(node.getId());
+    }
+
+    /**
+     * Emit an external variable with the specified name as a Dot node.
+     * @param out The emitter to which to emit the node.
+     * @param nodeName The name of the Dot node to emit.
+     * @param name The name of the Java variable to emit.
+     */
+    private void appendExternalVariable(DotEmitter out, String nodeName, String name) {
+        out.append("  ").append(nodeName)
+                .append("[style=filled,fillcolor=black,fontcolor=white,fontname=monospace,shape=ellipse,label=\"")
+                .append(name).append('"').append(END_NODE_ATTRIBUTES);
+    }
+
+    /**
+     * Draw an edge from the specified external variable's node to a null node.
+     * @param out The emitter to which to emit the edge.
+     * @param nameNode The name of the node containing this variable's name.
+     * @param lastTarget The target of this node during the previous operation.
+     */
+    private void appendNullExternalNode(DotEmitter out, String nameNode, Object lastTarget) {
+        out.append("  ").append(nameNode).append("_NULL [shape=circle,label=<<B>∅</B>>").append(END_NODE_ATTRIBUTES);
+        out.append("  ").append(nameNode).append(" -> ").append(nameNode).append("_NULL [");
+        appendModifiedColour(out, "color", false, lastTarget == null);
+        out.append(END_NODE_ATTRIBUTES);
+    }
+
+    /**
+     * Populate a map from LinkedList nodes onto DotListNodes with every node reachable from the specified node.  Nodes
+     * are visited depth-first, following next references before previous ones, using an explicit stack so that the
+     * call stack does not grow with the length of the list.  Nodes that have already been mapped are not visited
+     * again, so circular and corrupted lists are handled as well as linear ones.
+     *
+     * @param startNode The node at which to start populating the map.
+     * @param nodeCache The map into which to store node mappings.
+     * @param levelNodes The nodes in each level of the rendered graph.
+     * @param level The level at which startNode should be displayed in diagrammes.
+     * @param lastDotNodes The nodes in the previous snapshot, whose renderings may be reused.
+     * @return The DotListNode corresponding to startNode.
+     */
+    private DotListNode processNode(Object startNode, Map<Object, DotListNode> nodeCache, NodeLevels levelNodes,
+            int level, Map<Object, DotListNode> lastDotNodes) {
+        // If start node is null, do nothing
+        if (startNode == null) {
+            return null;
+        }
+
+        PendingNodes pendingNodes = new PendingNodes();
+        pendingNodes.push(startNode, level);
+        while (!pendingNodes.isEmpty()) {
+            int nodeLevel = pendingNodes.peekLevel();
+            Object node = pendingNodes.pop();
+            // If this node has already been mapped, do not map again
+            if (node == null || nodeCache.containsKey(node)) {
+                continue;
+            }
+
+            // Otherwise, create a new mapping
+            DotListNode mappedNode = new DotListNode(node, lastDotNodes.get(node));
+            nodeCache.put(node, mappedNode);
+            levelNodes.add(nodeLevel, mappedNode);
+
+            // Push previous first so that next is visited first
+            pendingNodes.push(mappedNode.getPrevNode(), nodeLevel - 1);
+            pendingNodes.push(mappedNode.getNextNode(), nodeLevel + 1);
+        }
+        return nodeCache.get(startNode);
+    }
+
+    /**
+     * Stack of LinkedList nodes waiting to be visited by processNode(), along with the level of each.
+     */
+    private static class PendingNodes {
+        /** Initial capacity of the stack. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** The nodes on the stack, from bottom to top. */
+        private Object[] nodes = new Object[INITIAL_CAPACITY];
+        /** The level of each node on the stack. */
+        private int[] levels = new int[INITIAL_CAPACITY];
+        /** The number of nodes on the stack. */
+        private int size = 0;
+
+        /**
+         * @param node The node to push onto the stack.
+         * @param level The level of the node.
+         */
+        void push(Object node, int level) {
+            if (this.size == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+                this.levels = Arrays.copyOf(this.levels, this.size * 2);
+            }
+            this.nodes[this.size] = node;
+            this.levels[this.size] = level;
+            this.size++;
+        }
+
+        /**
+         * @return The level of the node on top of the stack.
+         */
+        int peekLevel() {
+            return this.levels[this.size - 1];
+        }
+
+        /**
+         * @return The node removed from the top of the stack.
+         */
+        Object pop() {
+            Object node = this.nodes[--this.size];
+            this.nodes[this.size] = null;
+            return node;
+        }
+
+        /**
+         * @return true if the stack is empty, false otherwise.
+         */
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+    }
+
+    /**
+     * Nodes grouped by the level at which they are displayed in a diagramme.  Levels may be negative, so they are
+     * stored in two lists growing outward from level 0 to avoid ever shifting the levels already stored.
+     */
+    private class NodeLevels {
+        /** Nodes at levels 0, 1, 2, and so forth. */
+        private final ArrayList<ArrayList<DotListNode>> nonNegativeLevels = new ArrayList<>();
+        /** Nodes at levels -1, -2, -3, and so forth. */
+        private final ArrayList<ArrayList<DotListNode>> negativeLevels = new ArrayList<>();
+
+        /**
+         * @param level The level at which to add the node.
+         * @param node The node to add.
+         */
+        void add(int level, DotListNode node) {
+            ArrayList<ArrayList<DotListNode>> levels = (level >= 0) ? this.nonNegativeLevels : this.negativeLevels;
+            int index = (level >= 0) ? level : -level - 1;
+            while (levels.size() <= index) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(index).add(node);
+        }
+
+        /**
+         * @return The maximum level containing a node, or 0 if there are none.
+         */
+        int getMaxLevel() {
+            return this.nonNegativeLevels.isEmpty() ? 0 : this.nonNegativeLevels.size() - 1;
+        }
+
+        /**
+         * @return The nodes in each level, ordered from the minimum level to the maximum.
+         */
+        ArrayList<ArrayList<DotListNode>> toRanks() {
+            ArrayList<ArrayList<DotListNode>> ranks =
+                    new ArrayList<>(this.negativeLevels.size() + this.nonNegativeLevels.size());
+            for (int i = this.negativeLevels.size() - 1; i >= 0; i--) {
+                ranks.add(this.negativeLevels.get(i));
+            }
+            ranks.addAll(this.nonNegativeLevels);
+            return ranks;
+        }
+    }
+
+    /**
+     * Emit the nodes in the specified levels of a snapshot, grouped by their levels.
+     * @param out The emitter to which to emit the nodes.
+     * @param snapshot The snapshot being drawn.
+     * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+     * @param startLevel The first level to append, inclusive.
+     * @param endLevel The last level to append, exclusive.
+     */
+    private void appendRankedNodes(DotEmitter out, Snapshot snapshot, Map<Object, DotListNode> lastDotNodes,
+            int startLevel, int endLevel) {
+        for (int level = startLevel; level < endLevel; level++) {
+            // Write level header
+            out.append("  {rank=same; __DUMMY_").append(level).append(RANK_DUMMY_ATTRIBUTES);
+            for (DotListNode node : snapshot.nodeLevels.get(level)) {
+                node.appendDot(out, lastDotNodes);
+            }
+            out.append("}\n");
+        }
+    }
+
+    /**
+     * Emit the edges from the nodes in the specified levels of a snapshot.
+     * @param out The emitter to which to emit the edges.
+     * @param snapshot The snapshot being drawn.
+     * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+     * @param startLevel The first level whose edges to append, inclusive.
+     * @param endLevel The last level whose edges to append, exclusive.
+     */
+    private void appendRankedEdges(DotEmitter out, Snapshot snapshot, Map<Object, DotListNode> lastDotNodes,
+            int startLevel, int endLevel) {
+        for (int level = startLevel; level < endLevel; level++) {
+            for (DotListNode node : snapshot.nodeLevels.get(level)) {
+                node.appendDotEdges(out, snapshot.dotNodes, lastDotNodes, snapshot.rawHeadNode, null);
+            }
+        }
+    }
+
+    /**
+     * Serialises a range of ranks of a diagramme.  Must be safe to call from several threads at once for disjoint
+     * ranges.
+     */
+    private interface RankSerialiser {
+        /**
+         * @param out The emitter to which to emit the ranks.
+         * @param startRank The first rank to emit, inclusive.
+         * @param endRank The last rank to emit, exclusive.
+         */
+        void append(DotEmitter out, int startRank, int endRank);
+    }
+
+    /**
+     * Serialise the specified number of ranks of a diagramme in chunks and write them to htmlWriter in order, after
+     * anything already emitted through dotEmitter.  Large diagrammes are serialised on the common ForkJoinPool, a few
+     * chunks per worker ahead of the chunk being written, so that they are serialised in parallel without ever being
+     * held in memory whole.  Snapshots are not modified once captured, and their labels are rendered when they are,
+     * so their nodes can be read from any thread without calling into element code.  Each chunk in flight has an
+     * emitter of its own, which is kept for reuse once the chunk has been written.
+     *
+     * @param rankCount The number of ranks to write.
+     * @param serialiser The serialiser of each chunk of ranks.
+     */
+    private void writeRanks(int rankCount, RankSerialiser serialiser) throws IOException {
+        int chunkCount = (rankCount + SERIALISATION_CHUNK_RANKS - 1) / SERIALISATION_CHUNK_RANKS;
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (chunkCount <= 1 || parallelism <= 1) {
+            for (int start = 0; start < rankCount; start += SERIALISATION_CHUNK_RANKS) {
+                serialiser.append(this.dotEmitter, start, Math.min(rankCount, start + SERIALISATION_CHUNK_RANKS));
+                this.dotEmitter.writeTo(htmlWriter);
+            }
+            return;
+        }
+
+        this.dotEmitter.writeTo(htmlWriter);
+        ArrayDeque<ForkJoinTask<DotEmitter>> pending = new ArrayDeque<>();
+        int nextChunk = 0;
+        while (nextChunk < chunkCount || !pending.isEmpty()) {
+            while (nextChunk < chunkCount && pending.size() < SERIALISATION_CHUNKS_PER_WORKER * parallelism) {
+                int start = nextChunk++ * SERIALISATION_CHUNK_RANKS;
+                int end = Math.min(rankCount, start + SERIALISATION_CHUNK_RANKS);
+                DotEmitter chunk = this.spareEmitters.isEmpty() ? new DotEmitter() : this.spareEmitters.pop();
+                pending.add(ForkJoinPool.commonPool().submit(() -> {
+                    serialiser.append(chunk, start, end);
+                    return chunk;
+                }));
+            }
+            DotEmitter chunk = pending.remove().join();
+            chunk.writeTo(htmlWriter);
+            this.spareEmitters.push(chunk);
+        }
+    }
+
+    /**
+     * Capture of the structure of this list at a single point in time, from which a diagramme can later be written on
+     * any thread.  Apart from the reference to the previous snapshot, snapshots are not modified once captured.
+     */
+    private class Snapshot {
+        /**
+         * Map from LinkedList nodes onto their DotListNodes.  Nodes are compared by identity, so lookups never call the
+         * node class's equals() or hashCode(), which may be slow, recursive, or consider distinct nodes equal.
+         */
+        private final IdentityHashMap<Object, DotListNode> dotNodes = new IdentityHashMap<>();
+        /** The nodes in each level of the rendered graph, from the minimum level to the maximum. */
+        private final ArrayList<ArrayList<DotListNode>> nodeLevels;
+        /** The list's header node. */
+        private final Object rawHeadNode;
+        /** The DotListNode of the header node, or null if the header is null. */
+        private final DotListNode headNode;
+        /** The list's tail node, or null if the list has no tail. */
+        private final Object rawTailNode;
+        /** The DotListNode of the tail node, or null if the tail is null or the list has no tail. */
+        private final DotListNode tailNode;
+        /**
+         * The snapshot drawn before this one, against which modifications are highlighted.  Cleared once this snapshot
+         * is written so that old snapshots can be collected.
+         */
+        private Snapshot previous;
+
+        /**
+         * Capture the current structure of the list.
+         * @param previous The snapshot drawn before this one, or null if this is the first.
+         */
+        Snapshot(Snapshot previous) {
+            this(previous, previous);
+        }
+
+        /**
+         * Capture the current structure of the list.
+         * @param previous The snapshot drawn before this one, or null if this is the first.
+         * @param labelSource A snapshot whose renderings of unchanged elements may be reused, or null if there is none.
+         */
+        Snapshot(Snapshot previous, Snapshot labelSource) {
+            NodeLevels levelNodes = new NodeLevels();
+            this.previous = previous;
+            Map<Object, DotListNode> lastDotNodes = (labelSource == null) ? Map.of() : labelSource.dotNodes;
+
+            // Process from header node
+            this.rawHeadNode = schema.getHead(LinkedListView.this.viewedList());
+            this.headNode = processNode(this.rawHeadNode, this.dotNodes, levelNodes, 0, lastDotNodes);
+            // Process from tail node (if extant)
+            if (schema.hasTail()) {
+                this.rawTailNode = schema.getTail(LinkedListView.this.viewedList());
+                // In a properly structured list, the tail should have the maximum level
+                this.tailNode = processNode(this.rawTailNode, this.dotNodes, levelNodes, levelNodes.getMaxLevel(),
+                        lastDotNodes);
+            } else {
+                this.rawTailNode = null;
+                this.tailNode = null;
+            }
+            this.nodeLevels = levelNodes.toRanks();
+            for (int rank = 0; rank < this.nodeLevels.size(); rank++) {
+                for (DotListNode node : this.nodeLevels.get(rank)) {
+                    node.rank = rank;
+                }
+            }
+        }
+
+        /**
+         * @return The nodes of the previous snapshot, or an empty map if there is none.
+         */
+        Map<Object, DotListNode> getPreviousDotNodes() {
+            return (this.previous == null) ? Collections.emptyMap() : this.previous.dotNodes;
+        }
+
+        /**
+         * @return The view of the list of which this is a snapshot.
+         */
+        LinkedListView<E> getList() {
+            return LinkedListView.this;
+        }
+    }
+
+    /**
+     * Selection of the ranks of a snapshot to draw in a windowed diagramme: those containing a node that was added or
+     * modified since the previous snapshot, the ranks within a given radius of them, and those of the header and tail
+     * nodes.  Each run of ranks between them is drawn as a single placeholder node, so the size of the diagramme
+     * depends on the size of the change rather than the size of the list.
+     */
+    private class DiagrammeWindow {
+        /** The snapshot being drawn. */
+        private final Snapshot snapshot;
+        /** For each rank of the snapshot, -1 if it is drawn, or otherwise the first rank of the run containing it. */
+        private final int[] gapStarts;
+        /** Number of ranks written to the diagramme, counting each placeholder as one rank. */
+        private int writtenRankCount;
+
+        /**
+         * Select the ranks of the specified snapshot to draw.
+         * @param snapshot The snapshot being drawn.
+         * @param lastDotNodes The nodes in the previous snapshot, against which to find changes.
+         * @param radius The number of ranks to draw on either side of each changed rank.
+         */
+        DiagrammeWindow(Snapshot snapshot, Map<Object, DotListNode> lastDotNodes, int radius) {
+            this.snapshot = snapshot;
+            int rankCount = snapshot.nodeLevels.size();
+            boolean[] drawn = new boolean[rankCount];
+            for (DotListNode node : snapshot.dotNodes.values()) {
+                DotListNode lastNode = lastDotNodes.get(node.baseNode);
+                if (lastNode == null || node.isModifiedSince(lastNode)) {
+                    int last = Math.min(rankCount - 1, node.rank + radius);
+                    for (int rank = Math.max(0, node.rank - radius); rank <= last; rank++) {
+                        drawn[rank] = true;
+                    }
+                }
+            }
+            // Anchor the diagramme at the nodes referenced by the list itself
+            if (snapshot.headNode != null) {
+                drawn[snapshot.headNode.rank] = true;
+            }
+            if (snapshot.tailNode != null) {
+                drawn[snapshot.tailNode.rank] = true;
+            }
+
+            this.gapStarts = new int[rankCount];
+            for (int rank = 0; rank < rankCount; rank++) {
+                if (drawn[rank]) {
+                    this.gapStarts[rank] = -1;
+                } else {
+                    this.gapStarts[rank] = (rank > 0 && !drawn[rank - 1]) ? this.gapStarts[rank - 1] : rank;
+                }
+            }
+        }
+
+        /**
+         * Emit the name of the Dot node representing the specified node: its own if it is drawn, or otherwise the
+         * placeholder of the run containing it.
+         * @param out The emitter to which to emit the name.
+         * @param node A node in the snapshot.
+         */
+        void appendDotName(DotEmitter out, DotListNode node) {
+            int gapStart = this.gapStarts[node.rank];
+            if (gapStart < 0) {
+                out.append(DotListNode.DOT_PREFIX).append(node.getId());
+            } else {
+                out.append(WINDOW_GAP_PREFIX).append(gapStart);
+            }
+        }
+
+        /**
+         * Emit the drawn nodes grouped by their levels, and a placeholder at the level of each run of omitted ranks.
+         * @param out The emitter to which to emit the nodes.
+         * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+         */
+        void appendRankedNodes(DotEmitter out, Map<Object, DotListNode> lastDotNodes) {
+            ArrayList<ArrayList<DotListNode>> levelNodes = this.snapshot.nodeLevels;
+            this.writtenRankCount = 0;
+            int rank = 0;
+            while (rank < levelNodes.size()) {
+                out.append("  {rank=same; __DUMMY_").append(this.writtenRankCount++).append(RANK_DUMMY_ATTRIBUTES);
+                if (this.gapStarts[rank] < 0) {
+                    for (DotListNode node : levelNodes.get(rank)) {
+                        node.appendDot(out, lastDotNodes);
+                    }
+                    rank++;
+                } else {
+                    // Collapse the entire run into one placeholder
+                    int gapStart = rank;
+                    int nodeCount = 0;
+                    for (; rank < levelNodes.size() && this.gapStarts[rank] == gapStart; rank++) {
+                        nodeCount += levelNodes.get(rank).size();
+                    }
+                    out.append(WINDOW_GAP_PREFIX).append(gapStart).append(WINDOW_GAP_NODE_ATTRIBUTES)
+                            .appendGrouped(nodeCount).append((nodeCount == 1) ? " unchanged node …\"];"
+                                    : " unchanged nodes …\"];");
+                }
+                out.append("}\n");
+            }
+        }
+
+        /**
+         * Emit the edges of the drawn nodes, redirecting those to omitted nodes to their placeholders, and an
+         * unhighlighted edge from each placeholder to every node outside its run referenced from within it.
+         *
+         * @param out The emitter to which to emit the edges.
+         * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+         */
+        void appendEdges(DotEmitter out, Map<Object, DotListNode> lastDotNodes) {
+            ArrayList<ArrayList<DotListNode>> levelNodes = this.snapshot.nodeLevels;
+            Set<Long> gapNextTargets = new HashSet<>();
+            Set<Long> gapPrevTargets = new HashSet<>();
+            for (int rank = 0; rank < levelNodes.size(); rank++) {
+                int gapStart = this.gapStarts[rank];
+                if (gapStart < 0) {
+                    for (DotListNode node : levelNodes.get(rank)) {
+                        node.appendDotEdges(out, this.snapshot.dotNodes, lastDotNodes, this.snapshot.rawHeadNode, this);
+                    }
+                    continue;
+                }
+                if (rank == 0 || this.gapStarts[rank - 1] != gapStart) {
+                    gapNextTargets.clear();
+                    gapPrevTargets.clear();
+                }
+                for (DotListNode node : levelNodes.get(rank)) {
+                    this.appendGapEdge(out, gapStart, node.getNextNode(), ":nw", gapNextTargets);
+                    this.appendGapEdge(out, gapStart, node.getPrevNode(), ":se", gapPrevTargets);
+                }
+            }
+        }
+
+        /**
+         * Emit an edge from the placeholder of a run of omitted ranks to the specified node, unless it is in the same
+         * run or an identical edge has already been emitted.
+         *
+         * @param out The emitter to which to emit the edge.
+         * @param gapStart The first rank of the run.
+         * @param target The LinkedList node referenced from within the run, or null.
+         * @param port The port at which the edge enters the target node.
+         * @param gapTargets The targets of the edges already emitted from the run's placeholder through port: node
+         *                   IDs for drawn nodes, and negated first ranks less one for placeholders.
+         */
+        private void appendGapEdge(DotEmitter out, int gapStart, Object target, String port, Set<Long> gapTargets) {
+            if (target == null) {
+                return;
+            }
+            DotListNode targetNode = this.snapshot.dotNodes.get(target);
+            int targetGapStart = this.gapStarts[targetNode.rank];
+            if (targetGapStart == gapStart) {
+                return;
+            }
+            if (gapTargets.add((targetGapStart < 0) ? targetNode.getId() : -1L - targetGapStart)) {
+                out.append("  ").append(WINDOW_GAP_PREFIX).append(gapStart).append(" -> ");
+                this.appendDotName(out, targetNode);
+                out.append(port).append(WINDOW_GAP_EDGE_ATTRIBUTES);
+                // Unconstrain references to header
+                if (target == this.snapshot.rawHeadNode) {
+                    out.append(",constraint=false");
+                }
+                out.append(END_NODE_ATTRIBUTES);
+            }
+        }
+    }
+
+    /**
+     * GraphViz Dot-formatted deep copy of a single LinkedList node.  Instances of this class belong to a single
+     * snapshot, and do not reflect changes to the LinkedList made after it was captured.
+     */
+    private class DotListNode {
+        /** Prefix to prepend to Dot node names. */
+        public static final String DOT_PREFIX = "__NODE_";
+
+        /** The LinkedList node on which this node is based. */
+        private Object baseNode;
+        /** A reference to the previous node in the LinkedList. */
+        private Object prevNode;
+        /** The data stored in (referenced by) this object. */
+        private E data;
+        /** A reference to the following node in the LinkedList. */
+        private Object nextNode;
+        /**
+         * A unique identifier for this node, used in Dot graph generation because Java hash codes can collide.  Stable
+         * across operations for the same LinkedList node.
+         */
+        private long id;
+        /**
+         * The rendering of this node's data, made when the node is captured so that the writer thread never calls the
+         * element's toString(), and the label shows the element as it was at the time of the operation.  Null for a
+         * null node.
+         */
+        private final String text;
+        /** The index of the rank in which this node is drawn in its snapshot's diagrammes. */
+        private int rank;
+
+        /**
+         * Construct a single DotListNode from the specified field in the specified object, which should be a LinkedList
+         * node.
+         *
+         * @param baseNode The LinkedList node on which to base this node.
+         * @param lastNode The DotListNode for the same LinkedList node in the previous snapshot, or null if there is
+         *                 none.
+         */
+        @SuppressWarnings("unchecked")
+        public DotListNode(Object baseNode, DotListNode lastNode) {
+            this.id = nodeIds.idOf(baseNode);
+            this.baseNode = baseNode;
+            // Deep copy from base node
+            this.prevNode = schema.getPrev(baseNode);
+            this.data = (E) schema.getData(baseNode);
+            this.nextNode = schema.getNext(baseNode);
+            if (this.prevNode == null && this.data == null && this.nextNode == null) {
+                this.text = null;
+            } else if (lastNode != null && lastNode.text != null && lastNode.data == this.data
+                    && isImmutable(this.data)) {
+                // Still holds the same immutable element, so its rendering cannot have changed
+                this.text = lastNode.text;
+            } else {
+                this.text = renderElement(this.data);
+            }
+        }
+
+        /**
+         * @return This node's identifier, which is stable across operations.
+         */
+        public long getId() {
+            return this.id;
+        }
+
+        /**
+         * @return The name of this node in Dot graphs.
+         */
+        public String getDotName() {
+            return DOT_PREFIX + this.getId();
+        }
+
+        /**
+         * @return The previous object in this LinkedList.
+         */
+        public Object getPrevNode() {
+            return this.prevNode;
+        }
+
+        /**
+         * @return The following object in this LinkedList.
+         */
+        public Object getNextNode() {
+            return this.nextNode;
+        }
+
+        /**
+         * Emit this node as a GraphViz Dot node.
+         * @param out The emitter to which to emit the node.
+         * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+         */
+        public void appendDot(DotEmitter out, Map<Object, DotListNode> lastDotNodes) {
+            out.append("  ").append(DOT_PREFIX).append(this.getId()).append("[label=\"");
+            if (this.text == null) {
+                // Null node: print a simple representation of null
+                out.append("null");
+            } else {
+                // Node with value: print a record node
+                out.append("{<prev>|<data> ").appendQuoted(this.text).append("|<next>}");
+            }
+            out.append("\",");
+            // Highlight newly added nodes
+            DotListNode lastNode = lastDotNodes.get(this.baseNode);
+            boolean newNode = (lastNode == null);
+            appendModifiedColour(out, "color", newNode, false);
+            if (newNode) {
+                out.append(',');
+            }
+
+            // Highlight data according to modification type
+            appendModifiedColour(out, "fontcolor", newNode, !newNode && this.isDataModified(lastNode));
+            out.append("];");
+        }
+
+        /**
+         * @return The Dot record label for this node, built from the data rendered when it was captured.
+         */
+        private String getLabel() {
+            if (this.text == null) {
+                // Null node: print a simple representation of null
+                return "null";
+            }
+            // Node with value: print a record node
+            String dataStr = " " + this.text.replace("\"", "\\\"");
+            return "{<prev>|<data>" + dataStr + "|<next>}";
+        }
+
+        /**
+         * Determine whether this node's data differs from its data in a previous operation.  The renderings of the
+         * data are compared rather than the elements, so that no element code runs on the writer thread or on the pool
+         * workers that serialise large diagrammes.
+         * @param lastNode The DotListNode for the same LinkedList node in the previous operation.
+         * @return true if the data was modified, false otherwise.
+         */
+        private boolean isDataModified(DotListNode lastNode) {
+            return !Objects.equals(this.text, lastNode.text);
+        }
+
+        /**
+         * Determine whether this node's references or data differ from those of the specified node.
+         * @param lastNode The DotListNode for the same LinkedList node in the previous operation.
+         * @return true if this node was modified, false otherwise.
+         */
+        public boolean isModifiedSince(DotListNode lastNode) {
+            return this.prevNode != lastNode.prevNode || this.nextNode != lastNode.nextNode
+                    || this.isDataModified(lastNode);
+        }
+
+        /**
+         * Write this node as a delta viewer record of the form "id":[prev, label, next].
+         * @param out The writer to which to write the record, which is the root view's for sub-list views.
+         * @param nodeCache A mapping from LinkedList nodes to DotListNodes used to get node IDs.
+         */
+        public void writeJson(ChannelWriter out, Map<Object, DotListNode> nodeCache) throws IOException {
+            out.write("\"" + this.getId() + "\":[");
+            out.write(jsonId(nodeCache.get(this.prevNode)));
+            out.write(",");
+            out.write(jsonString(this.getLabel()));
+            out.write(",");
+            out.write(jsonId(nodeCache.get(this.nextNode)));
+            out.write("]");
+        }
+
+        /**
+         * Emit this node's previous and next references as Graphviz Dot edges.
+         * @param out The emitter to which to emit the edges.
+         * @param nodeCache A mapping from LinkedList nodes to DotListNodes used to get node IDs.
+         * @param lastDotNodes The nodes in the previous snapshot, against which to highlight modifications.
+         * @param headerNode The list's header node at the time that nodeCache was captured.
+         * @param window The window of nodes being drawn, or null if every node is drawn.
+         */
+        public void appendDotEdges(DotEmitter out, Map<Object, DotListNode> nodeCache,
+                Map<Object, DotListNode> lastDotNodes, Object headerNode, DiagrammeWindow window) {
+            // Do not highlight edges for new nodes
+            boolean newNode = !lastDotNodes.containsKey(this.baseNode);
+
+            // Print edge connecting to next (must come first to preserve rankdir)
+            if (this.nextNode != null) {
+                DotListNode next = nodeCache.get(this.nextNode);
+                out.append("  ").append(DOT_PREFIX).append(this.getId()).append(":next:c -> ");
+                appendTargetName(out, next, window);
+                out.append(":nw [");
+                appendModifiedColour(out, "color", newNode, !newNode
+                        && (lastDotNodes.get(this.baseNode).nextNode != this.nextNode));
+                // Unconstrain references to header
+                if (edgeConnectsHeader(this.baseNode, this.nextNode, headerNode)) {
+                    out.append(" constraint=false");
+                }
+                out.append(END_NODE_ATTRIBUTES);
+            }
+
+            // Print edge connecting to previous
+            if (this.prevNode != null) {
+                DotListNode prev = nodeCache.get(this.prevNode);
+                out.append("  ").append(DOT_PREFIX).append(this.getId()).append(":prev:c -> ");
+                appendTargetName(out, prev, window);
+                out.append(":se [");
+                appendModifiedColour(out, "color", newNode, !newNode
+                        && (lastDotNodes.get(this.baseNode).prevNode != this.prevNode));
+                // Unconstrain references to header
+                if (edgeConnectsHeader(this.baseNode, this.prevNode, headerNode)) {
+                    out.append(" constraint=false");
+                }
+                out.append(END_NODE_ATTRIBUTES);
+            }
+        }
+
+        /**
+         * Emit the Dot name of the target of one of this node's edges.
+         * @param out The emitter to which to emit the name.
+         * @param target The node referenced by this node.
+         * @param window The window of nodes being drawn, or null if every node is drawn.
+         */
+        private void appendTargetName(DotEmitter out, DotListNode target, DiagrammeWindow window) {
+            if (window == null) {
+                out.append(DOT_PREFIX).append(target.getId());
+            } else {
+                window.appendDotName(out, target);
+            }
+        }
+
+        /**
+         * Determine whether the either of the specified nodes in an edge is the
+         * list's header node.  Used to improve rendering of circular linked
+         * lists.
+         *
+         * @param node1 The first node in the edge.
+         * @param node2 The second node in the edge.
+         * @param headerNode The list's header node.
+         * @return true if node1 or node2 is the header node, false otherwise.
+         */
+        private boolean edgeConnectsHeader(Object node1, Object node2, Object headerNode) {
+            return (node1 == headerNode) || (node2 == headerNode);
+        }
+    }
+    //endregion
+
+    //region Snapshot history
+    /**
+     * Record the state of the list captured in the specified snapshot in the history.  Node states are shared with the
+     * previous recorded state wherever the node is unchanged, so each state costs memory in proportion to the number
+     * of nodes that changed rather than the length of the list.
+     *
+     * @param snapshot The snapshot of the list after the operation.
+     * @param operation The number of the operation after which the snapshot was captured.
+     */
+    private void recordState(Snapshot snapshot, int operation) {
+        ListState<E> previous = this.history.isEmpty() ? null : this.history.get(this.history.size() - 1);
+        NodeTable<E> nodes = (previous == null) ? NodeTable.empty() : previous.nodes;
+        for (DotListNode node : snapshot.dotNodes.values()) {
+            long prevId = stateId(snapshot.dotNodes.get(node.getPrevNode()));
+            long nextId = stateId(snapshot.dotNodes.get(node.getNextNode()));
+            NodeState<E> lastState = nodes.get(node.getId());
+            if (lastState == null || !lastState.matches(prevId, node.data, nextId)) {
+                nodes = nodes.with(new NodeState<>(node.getId(), prevId, node.data, nextId));
+            }
+        }
+
+        // Every node in the snapshot is now in the table, so any others must have been removed
+        if (nodes.size() > snapshot.dotNodes.size()) {
+            long[] currentIds = new long[snapshot.dotNodes.size()];
+            int i = 0;
+            for (DotListNode node : snapshot.dotNodes.values()) {
+                currentIds[i++] = node.getId();
+            }
+            Arrays.sort(currentIds);
+            ArrayList<NodeState<E>> removed = new ArrayList<>();
+            previous.nodes.forEach(state -> {
+                if (Arrays.binarySearch(currentIds, state.id) < 0) {
+                    removed.add(state);
+                }
+            });
+            for (NodeState<E> state : removed) {
+                nodes = nodes.without(state.id);
+            }
+        }
+        this.history.add(new ListState<>(operation, stateId(snapshot.headNode), stateId(snapshot.tailNode), nodes));
+    }
+
+    /**
+     * @param node A node in a snapshot, or null.
+     * @return The node's ID, or -1 if the node is null.
+     */
+    private static long stateId(LinkedListView<?>.DotListNode node) {
+        return (node == null) ? -1 : node.getId();
+    }
+
+    /**
+     * Return the number of operations logged on this list thus far.  Operations are numbered from 0, the construction
+     * of the list, in the order in which they were performed; each coalesced entry counts as a single operation.
+     * Entries still pending, such as a coalesced entry whose run has not ended, are counted without being written, so
+     * calling this method does not change the transcript.
+     *
+     * @return The number of operations logged thus far.
+     */
+    public int getLoggedOperationCount() {
+        this.lockOperations();
+        try {
+            return this.loggedOperationCount + this.countPendingEntries();
+        } finally {
+            this.unlockOperations();
+        }
+    }
+
+    /**
+     * @return The number of entries not yet written, which are numbered once they are: a coalesced entry whose run has
+     *         not ended, and calls to an iterator's next() not yet written as an entry.
+     */
+    private int countPendingEntries() {
+        int count = 0;
+        if (this.currentRun != null && this.currentRun.foldedCount > 0) {
+            count++;
+        }
+        if (this.pendingIterator != null && this.pendingIterator.nextCount > 0) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Return the state of this list after the specified operation.  History must be enabled with
+     * Options.setRecordHistory().  If the operation is an entry still pending, its state is only recorded once it is
+     * written, so the pending entries are written first: a coalesced run ends early, and the next call in it begins
+     * a new entry.
+     *
+     * @param operation The number of the operation, from 0 to getLoggedOperationCount() - 1.
+     * @return The state of the list after the operation.
+     * @throws IllegalStateException If history is not recorded.
+     */
+    public ListState<E> getState(int operation) {
+        if (this.history == null) {
+            throw new IllegalStateException("History is not recorded; enable it with Options.setRecordHistory().");
+        }
+        this.lockOperations();
+        try {
+            if (operation < 0 || operation >= this.getLoggedOperationCount()) {
+                throw new IllegalArgumentException("No operation " + operation + " has been logged.");
+            }
+            if (operation >= this.loggedOperationCount) {
+                this.writeIteration();
+                this.flushRun();
+            }
+
+            // Operations that do not modify the list share the state recorded before them
+            int low = 0;
+            int high = this.history.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (this.history.get(middle).operation <= operation) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return (high < 0) ? new ListState<>(operation, -1, -1, NodeTable.empty()) : this.history.get(high);
+        } finally {
+            this.unlockOperations();
+        }
+    }
+
+    /**
+     * Return the differences between the states of this list after two operations.  History must be enabled with
+     * Options.setRecordHistory().  Nodes shared by the two states are skipped without being compared, so the cost of
+     * the comparison depends on the number of changes between the operations rather than the length of the list.  As
+     * with getState(), pending entries are written first if either operation is one of them.
+     *
+     * @param fromOperation The number of the earlier operation.
+     * @param toOperation The number of the later operation.
+     * @return The nodes added, removed, and modified between the two operations.
+     * @throws IllegalStateException If history is not recorded.
+     */
+    public ListDiff<E> getDiff(int fromOperation, int toOperation) {
+        // Both states are read under one hold of the lock, so that no operation is logged between them
+        this.lockOperations();
+        try {
+            return new ListDiff<>(this.getState(fromOperation), this.getState(toOperation));
+        } finally {
+            this.unlockOperations();
+        }
+    }
+
+    /**
+     * State of a single list node at some point in a list's history.  States are immutable and shared by every list
+     * state in which the node is unchanged.
+     *
+     * @param <E> The type of the list's elements.
+     */
+    public static class NodeState<E> {
+        /** The ID of the node. */
+        private final long id;
+        /** The ID of the node's previous node, or -1 if null. */
+        private final long prevId;
+        /** The data stored in the node. */
+        private final E data;
+        /** The ID of the node's next node, or -1 if null. */
+        private final long nextId;
+
+        /**
+         * @param id The ID of the node.
+         * @param prevId The ID of the node's previous node, or -1 if null.
+         * @param data The data stored in the node.
+         * @param nextId The ID of the node's next node, or -1 if null.
+         */
+        NodeState(long id, long prevId, E data, long nextId) {
+            this.id = id;
+            this.prevId = prevId;
+            this.data = data;
+            this.nextId = nextId;
+        }
+
+        /**
+         * @return The ID of the node, which is the same as in diagrammes and traces.
+         */
+        public long getId() {
+            return this.id;
+        }
+
+        /**
+         * @return The ID of the node's previous node, or -1 if null.
+         */
+        public long getPrevId() {
+            return this.prevId;
+        }
+
+        /**
+         * @return The data stored in the node.
+         */
+        public E getData() {
+            return this.data;
+        }
+
+        /**
+         * @return The ID of the node's next node, or -1 if null.
+         */
+        public long getNextId() {
+            return this.nextId;
+        }
+
+        /**
+         * @param prevId The ID of a previous node, or -1.
+         * @param data Some data.
+         * @param nextId The ID of a next node, or -1.
+         * @return true if this state has the specified references and equal data, false otherwise.
+         */
+        boolean matches(long prevId, E data, long nextId) {
+            return this.prevId == prevId && this.nextId == nextId && Objects.equals(this.data, data);
+        }
+    }
+
+    /**
+     * State of an entire list after an operation, as recorded in its history.
+     * @param <E> The type of the list's elements.
+     */
+    public static class ListState<E> {
+        /** The number of the operation after which this state was recorded. */
+        private final int operation;
+        /** The ID of the node referenced by the list's header, or -1 if null. */
+        private final long headId;
+        /** The ID of the node referenced by the list's tail, or -1 if null or if the list has no tail. */
+        private final long tailId;
+        /** The state of every node in the list, by ID. */
+        private final NodeTable<E> nodes;
+
+        /**
+         * @param operation The number of the operation after which this state was recorded.
+         * @param headId The ID of the node referenced by the list's header, or -1 if null.
+         * @param tailId The ID of the node referenced by the list's tail, or -1.
+         * @param nodes The state of every node in the list, by ID.
+         */
+        ListState(int operation, long headId, long tailId, NodeTable<E> nodes) {
+            this.operation = operation;
+            this.headId = headId;
+            this.tailId = tailId;
+            this.nodes = nodes;
+        }
+
+        /**
+         * @return The number of the operation after which this state was recorded, which is the last operation that
+         *         modified the list at or before the operation that was requested.
+         */
+        public int getOperation() {
+            return this.operation;
+        }
+
+        /**
+         * @return The ID of the node referenced by the list's header, or -1 if null.
+         */
+        public long getHeadId() {
+            return this.headId;
+        }
+
+        /**
+         * @return The ID of the node referenced by the list's tail, or -1 if null or if the list has no tail.
+         */
+        public long getTailId() {
+            return this.tailId;
+        }
+
+        /**
+         * @return The number of nodes in the list, including any dummy header nodes.
+         */
+        public int getNodeCount() {
+            return this.nodes.size();
+        }
+
+        /**
+         * @param id The ID of a node.
+         * @return The state of the node, or null if it was not in the list.
+         */
+        public NodeState<E> getNode(long id) {
+            return this.nodes.get(id);
+        }
+
+        /**
+         * Return the state of every node in the list: those reachable from the header by following next references in
+         * that order, followed by any others in order of ID.
+         *
+         * @return The states of the nodes.
+         */
+        public List<NodeState<E>> getNodes() {
+            ArrayList<NodeState<E>> ordered = new ArrayList<>(this.nodes.size());
+            HashSet<Long> visited = new HashSet<>();
+            for (NodeState<E> node = this.nodes.get(this.headId); node != null && visited.add(node.id);
+                    node = this.nodes.get(node.nextId)) {
+                ordered.add(node);
+            }
+            if (ordered.size() < this.nodes.size()) {
+                ArrayList<NodeState<E>> unreachable = new ArrayList<>();
+                this.nodes.forEach(node -> {
+                    if (!visited.contains(node.id)) {
+                        unreachable.add(node);
+                    }
+                });
+                unreachable.sort((a, b) -> Long.compare(a.id, b.id));
+                ordered.addAll(unreachable);
+            }
+            return ordered;
+        }
+    }
+
+    /**
+     * Differences between the states of a list after two operations.
+     * @param <E> The type of the list's elements.
+     */
+    public static class ListDiff<E> {
+        /** The earlier state. */
+        private final ListState<E> from;
+        /** The later state. */
+        private final ListState<E> to;
+        /** The states of the nodes in the later state that were not in the earlier state. */
+        private final ArrayList<NodeState<E>> added = new ArrayList<>();
+        /** The states of the nodes in the earlier state that are not in the later state. */
+        private final ArrayList<NodeState<E>> removed = new ArrayList<>();
+        /** The later states of the nodes whose references or data differ between the states. */
+        private final ArrayList<NodeState<E>> modified = new ArrayList<>();
+
+        /**
+         * Compare the specified states.
+         * @param from The earlier state.
+         * @param to The later state.
+         */
+        ListDiff(ListState<E> from, ListState<E> to) {
+            this.from = from;
+            this.to = to;
+            NodeTable.diff(from.nodes, to.nodes, 0, (fromNode, toNode) -> {
+                if (fromNode == null) {
+                    this.added.add(toNode);
+                } else if (toNode == null) {
+                    this.removed.add(fromNode);
+                } else if (!toNode.matches(fromNode.prevId, fromNode.data, fromNode.nextId)) {
+                    this.modified.add(toNode);
+                }
+            });
+            Comparator<NodeState<E>> byId = (a, b) -> Long.compare(a.id, b.id);
+            this.added.sort(byId);
+            this.removed.sort(byId);
+            this.modified.sort(byId);
+        }
+
+        /**
+         * @return The earlier state.
+         */
+        public ListState<E> getFrom() {
+            return this.from;
+        }
+
+        /**
+         * @return The later state.
+         */
+        public ListState<E> getTo() {
+            return this.to;
+        }
+
+        /**
+         * @return The states of the nodes added between the two states, in order of ID.
+         */
+        public List<NodeState<E>> getAdded() {
+            return Collections.unmodifiableList(this.added);
+        }
+
+        /**
+         * @return The earlier states of the nodes removed between the two states, in order of ID.
+         */
+        public List<NodeState<E>> getRemoved() {
+            return Collections.unmodifiableList(this.removed);
+        }
+
+        /**
+         * @return The later states of the nodes whose references or data were modified between the two states, in
+         *         order of ID.
+         */
+        public List<NodeState<E>> getModified() {
+            return Collections.unmodifiableList(this.modified);
+        }
+    }
+
+    /**
+     * Persistent map from node IDs onto node states, implemented as a hash array mapped trie.  Tables are never
+     * modified: adding or removing a node copies only the path from the root to that node and shares the rest of the
+     * trie, so a table costs memory in proportion to its differences from the table that it was derived from.  Node
+     * IDs are unique, and are scrambled by a bijective hash so that distinct IDs never collide.
+     *
+     * @param <E> The type of the list's elements.
+     */
+    private static class NodeTable<E> {
+        /** Number of hash bits consumed by each level of the trie. */
+        private static final int BITS = 5;
+        /** Mask selecting the hash bits consumed by a single level. */
+        private static final int MASK = (1 << BITS) - 1;
+        /** The empty table. */
+        private static final NodeTable<?> EMPTY = new NodeTable<>(0, new Object[0], 0);
+
+        /** The slots occupied in this level, one bit per slot. */
+        private final int bitmap;
+        /** The contents of the occupied slots in order: either node states or tables for the next level. */
+        private final Object[] slots;
+        /** The number of node states in this table and its descendants. */
+        private final int size;
+
+        /**
+         * @param bitmap The slots occupied in this level.
+         * @param slots The contents of the occupied slots.
+         * @param size The number of node states in this table and its descendants.
+         */
+        private NodeTable(int bitmap, Object[] slots, int size) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        /**
+         * @param <E> The type of the list's elements.
+         * @return The empty table.
+         */
+        @SuppressWarnings("unchecked")
+        static <E> NodeTable<E> empty() {
+            return (NodeTable<E>) EMPTY;
+        }
+
+        /**
+         * @param id A node ID.
+         * @return The hash of the ID, which is unique to it.
+         */
+        private static long hash(long id) {
+            return id * 0x9E3779B97F4A7C15L;
+        }
+
+        /**
+         * @param hash The hash of a node ID.
+         * @param shift The number of hash bits consumed by the levels above.
+         * @return The bit of the slot for the hash in the level.
+         */
+        private static int bit(long hash, int shift) {
+            return 1 << ((int) (hash >>> shift) & MASK);
+        }
+
+        /**
+         * @param bit The bit of a slot in this level.
+         * @return The contents of the slot, or null if it is unoccupied.
+         */
+        private Object slot(int bit) {
+            return ((this.bitmap & bit) == 0) ? null : this.slots[Integer.bitCount(this.bitmap & (bit - 1))];
+        }
+
+        /**
+         * @return The number of node states in this table.
+         */
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * @param id The ID of a node.
+         * @return The state of the node, or null if it is not in this table.
+         */
+        @SuppressWarnings("unchecked")
+        NodeState<E> get(long id) {
+            long hash = hash(id);
+            NodeTable<E> table = this;
+            for (int shift = 0; ; shift += BITS) {
+                Object slot = table.slot(bit(hash, shift));
+                if (!(slot instanceof NodeTable)) {
+                    NodeState<E> state = (NodeState<E>) slot;
+                    return (state != null && state.id == id) ? state : null;
+                }
+                table = (NodeTable<E>) slot;
+            }
+        }
+
+        /**
+         * @param state The state of a node.
+         * @return A table containing the specified state in place of any previous state of the same node.
+         */
+        NodeTable<E> with(NodeState<E> state) {
+            return this.with(state, hash(state.id), 0);
+        }
+
+        /**
+         * @param state The state of a node.
+         * @param hash The hash of the node's ID.
+         * @param shift The number of hash bits consumed by the levels above this one.
+         * @return A table containing the specified state in place of any previous state of the same node.
+         */
+        @SuppressWarnings("unchecked")
+        private NodeTable<E> with(NodeState<E> state, long hash, int shift) {
+            int bit = bit(hash, shift);
+            int index = Integer.bitCount(this.bitmap & (bit - 1));
+            if ((this.bitmap & bit) == 0) {
+                Object[] slots = new Object[this.slots.length + 1];
+                System.arraycopy(this.slots, 0, slots, 0, index);
+                slots[index] = state;
+                System.arraycopy(this.slots, index, slots, index + 1, this.slots.length - index);
+                return new NodeTable<>(this.bitmap | bit, slots, this.size + 1);
+            }
+
+            Object slot = this.slots[index];
+            if (slot instanceof NodeTable) {
+                NodeTable<E> child = (NodeTable<E>) slot;
+                NodeTable<E> newChild = child.with(state, hash, shift + BITS);
+                return this.replace(index, newChild, this.size - child.size + newChild.size);
+            }
+            NodeState<E> existing = (NodeState<E>) slot;
+            if (existing.id == state.id) {
+                return this.replace(index, state, this.size);
+            }
+            // Both nodes share this slot, so push them down to the next level
+            return this.replace(index, pair(existing, hash(existing.id), state, hash, shift + BITS), this.size + 1);
+        }
+
+        /**
+         * @param first The state of a node.
+         * @param firstHash The hash of the first node's ID.
+         * @param second The state of another node.
+         * @param secondHash The hash of the second node's ID.
+         * @param shift The number of hash bits consumed by the levels above the new table.
+         * @param <E> The type of the list's elements.
+         * @return A table containing exactly the two states.
+         */
+        private static <E> NodeTable<E> pair(NodeState<E> first, long firstHash, NodeState<E> second, long secondHash,
+                int shift) {
+            int firstBit = bit(firstHash, shift);
+            int secondBit = bit(secondHash, shift);
+            if (firstBit == secondBit) {
+                return new NodeTable<>(firstBit,
+                        new Object[] {pair(first, firstHash, second, secondHash, shift + BITS)}, 2);
+            }
+            // The bit of the last slot is negative
+            Object[] slots = (Integer.compareUnsigned(firstBit, secondBit) < 0)
+                    ? new Object[] {first, second} : new Object[] {second, first};
+            return new NodeTable<>(firstBit | secondBit, slots, 2);
+        }
+
+        /**
+         * @param index The index of an occupied slot.
+         * @param contents The new contents of the slot.
+         * @param size The number of node states in the new table.
+         * @return A copy of this table with the contents of the slot replaced.
+         */
+        private NodeTable<E> replace(int index, Object contents, int size) {
+            Object[] slots = this.slots.clone();
+            slots[index] = contents;
+            return new NodeTable<>(this.bitmap, slots, size);
+        }
+
+        /**
+         * @param id The ID of a node.
+         * @return A table without the state of the node.
+         */
+        NodeTable<E> without(long id) {
+            return this.without(id, hash(id), 0);
+        }
+
+        /**
+         * @param id The ID of a node.
+         * @param hash The hash of the node's ID.
+         * @param shift The number of hash bits consumed by the levels above this one.
+         * @return A table without the state of the node.
+         */
+        @SuppressWarnings("unchecked")
+        private NodeTable<E> without(long id, long hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            int index = Integer.bitCount(this.bitmap & (bit - 1));
+            Object slot = this.slots[index];
+            if (slot instanceof NodeTable) {
+                NodeTable<E> child = (NodeTable<E>) slot;
+                NodeTable<E> newChild = child.without(id, hash, shift + BITS);
+                if (newChild == child) {
+                    return this;
+                } else if (newChild.size == 1 && !(newChild.slots[0] instanceof NodeTable)) {
+                    // Pull a lone remaining state up into this level
+                    return this.replace(index, newChild.slots[0], this.size - 1);
+                }
+                return this.replace(index, newChild, this.size - 1);
+            }
+            if (((NodeState<E>) slot).id != id) {
+                return this;
+            }
+            Object[] slots = new Object[this.slots.length - 1];
+            System.arraycopy(this.slots, 0, slots, 0, index);
+            System.arraycopy(this.slots, index + 1, slots, index, slots.length - index);
+            return new NodeTable<>(this.bitmap & ~bit, slots, this.size - 1);
+        }
+
+        /**
+         * @param action The action to perform on the state of every node in this table.
+         */
+        @SuppressWarnings("unchecked")
+        void forEach(Consumer<NodeState<E>> action) {
+            for (Object slot : this.slots) {
+                if (slot instanceof NodeTable) {
+                    ((NodeTable<E>) slot).forEach(action);
+                } else {
+                    action.accept((NodeState<E>) slot);
+                }
+            }
+        }
+
+        /**
+         * Report every node whose state differs between two tables, skipping the subtries that they share.
+         *
+         * @param from The earlier table.
+         * @param to The later table.
+         * @param shift The number of hash bits consumed by the levels above the tables.
+         * @param changes Action performed with the earlier and later states of each node whose state object differs
+         *                between the tables; the earlier state is null for added nodes and the later state is null for
+         *                removed nodes.
+         * @param <E> The type of the list's elements.
+         */
+        @SuppressWarnings("unchecked")
+        static <E> void diff(NodeTable<E> from, NodeTable<E> to, int shift,
+                BiConsumer<NodeState<E>, NodeState<E>> changes) {
+            if (from == to) {
+                return;
+            }
+            int bits = from.bitmap | to.bitmap;
+            while (bits != 0) {
+                int bit = Integer.lowestOneBit(bits);
+                bits &= ~bit;
+                Object fromSlot = from.slot(bit);
+                Object toSlot = to.slot(bit);
+                if (fromSlot == toSlot) {
+                    continue;
+                }
+                if (fromSlot instanceof NodeTable || toSlot instanceof NodeTable) {
+                    // Compare a lone state against a subtrie by treating it as a subtrie of its own
+                    diff(asTable(fromSlot, shift + BITS), asTable(toSlot, shift + BITS), shift + BITS, changes);
+                    continue;
+                }
+                NodeState<E> fromState = (NodeState<E>) fromSlot;
+                NodeState<E> toState = (NodeState<E>) toSlot;
+                if (fromState != null && toState != null && fromState.id != toState.id) {
+                    changes.accept(fromState, null);
+                    changes.accept(null, toState);
+                } else {
+                    changes.accept(fromState, toState);
+                }
+            }
+        }
+
+        /**
+         * @param slot The contents of a slot.
+         * @param shift The number of hash bits consumed by the levels above the slot's contents.
+         * @param <E> The type of the list's elements.
+         * @return The contents if they are a table, or otherwise a table containing only the contents.
+         */
+        @SuppressWarnings("unchecked")
+        private static <E> NodeTable<E> asTable(Object slot, int shift) {
+            if (slot instanceof NodeTable) {
+                return (NodeTable<E>) slot;
+            } else if (slot == null) {
+                return empty();
+            }
+            NodeState<E> state = (NodeState<E>) slot;
+            return new NodeTable<>(bit(hash(state.id), shift), new Object[] {state}, 1);
+        }
+    }
+    //endregion
+
+    //region Profiling
+    /** Start time returned by startProfiling() for operations that are not profiled. */
+    private static final long NOT_PROFILED = Long.MIN_VALUE;
+    /** Smallest mean list size whose latencies are used to estimate how an operation scales. */
+    private static final int MIN_FIT_SIZE = 16;
+    /** Smallest number of calls at a list size for their latencies to be used to estimate how an operation scales. */
+    private static final int MIN_FIT_CALLS = 5;
+    /** Number of doublings of the largest profiled list size within which sizes are used to estimate growth. */
+    private static final int FIT_OCTAVES = 3;
+    /** Smallest number of list sizes from which to estimate how an operation scales. */
+    private static final int MIN_FIT_POINTS = 3;
+    /** Smallest ratio between the largest and smallest list sizes from which to estimate how an operation scales. */
+    private static final int MIN_FIT_SPAN = 4;
+    /** Heading and explanation of the profile written at the end of HTML transcripts. */
+    private static final String PROFILE_PREAMBLE =
+            "<hr/>\n"
+            + "<h2>Operation profile</h2>\n"
+            + "<p>Time taken by each operation of your <code>LinkedList</code>, not including the time taken to log "
+            + "it.  Growth is estimated from the median time taken at each size of the list, so it is only shown for "
+            + "operations called many times on lists of many different lengths.</p>\n"
+            + "<table border=\"1\" cellpadding=\"4\" style=\"border-collapse: collapse;\">\n"
+            + "<tr><th>Operation</th><th>Calls</th><th>Median</th><th>99th percentile</th><th>Maximum</th>"
+            + "<th>Median by list size</th><th>Growth</th><th>Expected</th></tr>\n";
+    /** Row of the profile table.  Must be formatted with the operation and each of its statistics. */
+    private static final String PROFILE_ROW =
+            "<tr><td><code>%s</code></td><td>%,d</td><td>%s</td><td>%s</td><td>%s</td><td>%s</td>"
+            + "<td%s>%s</td><td>%s</td></tr>\n";
+
+    /**
+     * Begin timing an operation on the underlying LinkedList, if the operation was called from outside this class and
+     * either profiling is enabled, a Flight Recorder event is being recorded for it, or diagrammes are sampled to an
+     * overhead budget.  Must be paired with a call to
+     * stopProfiling() once the operation returns.
+     *
+     * @param external Whether the operation was called from outside this class and LinkedList.
+     * @return The time at which the operation began, or NOT_PROFILED if it is not timed.
+     */
+    private long startProfiling(boolean external) {
+        boolean adaptive = this.sampling != null && this.sampling.isAdaptive();
+        if (!external || (this.profiles == null && this.operationEvent == null && !adaptive)) {
+            return NOT_PROFILED;
+        }
+        if (this.profiles != null) {
+            // Measured before the timer starts so that it does not count towards the operation
+            this.profiledSize = this.viewedSize();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time taken by an operation on the underlying LinkedList in its profile, its Flight Recorder event,
+     * and the sampling policy.
+     * @param operation The operation that was timed.
+     * @param start The time returned by startProfiling() before the operation began.
+     */
+    private void stopProfiling(Operation operation, long start) {
+        if (start == NOT_PROFILED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (this.operationEvent != null) {
+            this.operationEvent.linkedListDuration = elapsed;
+        }
+        if (this.sampling != null) {
+            this.sampling.recordListTime(elapsed);
+        }
+        if (this.profiles != null) {
+            OperationProfile profile = this.profiles[operation.ordinal()];
+            if (profile == null) {
+                profile = new OperationProfile();
+                this.profiles[operation.ordinal()] = profile;
+            }
+            profile.record(elapsed, this.profiledSize);
+        }
+    }
+
+    /**
+     * Return the order of growth that an operation should have in a correct implementation of the LinkedList.
+     * Operations at either end of the list should take constant time, since both ends can be reached directly through
+     * the tail or, in a circular list, through the header node.
+     *
+     * @param operation The operation.
+     * @return The expected order of growth of the operation.
+     */
+    private static Growth expectedGrowth(Operation operation) {
+        switch (operation) {
+            case CONSTRUCT:
+            case SIZE:
+            case ADD:
+            case ADD_FIRST:
+            case ADD_LAST:
+            case REMOVE_FIRST:
+            case REMOVE_LAST:
+            case MAKE_EMPTY:
+            case ITERATOR:
+            case ITERATOR_REMOVE:
+                return Growth.CONSTANT;
+            default:
+                return Growth.LINEAR;
+        }
+    }
+
+    /**
+     * Return a description of every profiled operation that scales worse than it should, for example "removeLast() is
+     * O(n) but expected O(1) for a list with a tail".
+     *
+     * @return The descriptions, in the order in which the operations are declared.
+     */
+    private ArrayList<String> profileFindings() {
+        String layout = this.schema.hasTail() ? "a list with a tail" : "a circular list";
+        ArrayList<String> findings = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            OperationProfile profile = this.profiles[operation.ordinal()];
+            Growth growth = (profile == null) ? null : profile.fitGrowth();
+            Growth expected = expectedGrowth(operation);
+            if (growth != null && growth.compareTo(expected) > 0) {
+                // Only operations at the end of the list depend upon how it can be reached
+                boolean atEnd = operation == Operation.ADD || operation == Operation.ADD_LAST
+                        || operation == Operation.REMOVE_LAST;
+                findings.add(String.format("%s is %s but expected %s%s.", operation.signature(), growth.notation,
+                        expected.notation, atEnd ? " for " + layout : ""));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Write the latency and growth of every profiled operation to htmlWriter as a table.
+     */
+    private void writeProfile() throws IOException {
+        htmlWriter.write(PROFILE_PREAMBLE);
+        for (Operation operation : Operation.values()) {
+            OperationProfile profile = this.profiles[operation.ordinal()];
+            if (profile == null) {
+                continue;
+            }
+
+            StringBuilder bySize = new StringBuilder();
+            for (int i = 0; i < profile.bySize.length; i++) {
+                LatencyHistogram histogram = profile.bySize[i];
+                if (histogram != null) {
+                    int minSize = (i == 0) ? 0 : 1 << (i - 1);
+                    int maxSize = (i == 0) ? 0 : (int) ((1L << i) - 1);
+                    bySize.append((bySize.length() == 0) ? "" : "<br/>")
+                            .append((minSize == maxSize) ? String.valueOf(minSize) : minSize + "–" + maxSize)
+                            .append(": ")
+                            .append(formatNanos(histogram.percentile(0.5)));
+                }
+            }
+
+            Growth growth = profile.fitGrowth();
+            Growth expected = expectedGrowth(operation);
+            boolean worse = growth != null && growth.compareTo(expected) > 0;
+            htmlWriter.write(String.format(PROFILE_ROW, operation.signature(), profile.all.count,
+                    formatNanos(profile.all.percentile(0.5)), formatNanos(profile.all.percentile(0.99)),
+                    formatNanos(profile.all.max), bySize,
+                    worse ? String.format(" style=\"font-weight: 600; color: %s;\"", MODIFIED_COLOUR) : "",
+                    (growth == null) ? "—" : growth.notation + " (" + growth.description + ")", expected.notation));
+        }
+        htmlWriter.write("</table>\n");
+        for (String finding : this.profileFindings()) {
+            htmlWriter.write(String.format("<p style=\"font-weight: 600; color: %s;\">%s</p>\n",
+                    MODIFIED_COLOUR, finding));
+        }
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds.
+     * @return The duration formatted with a unit appropriate to its magnitude.
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + " ns";
+        } else if (nanos < 1_000_000L) {
+            return String.format("%.1f µs", nanos / 1e3);
+        } else if (nanos < 1_000_000_000L) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+
+    /**
+     * Orders of growth with which the time taken by an operation can scale with the length of the list, from best to
+     * worst.
+     */
+    private enum Growth {
+        CONSTANT("O(1)", "constant"),
+        LINEAR("O(n)", "scales linearly"),
+        QUADRATIC("O(n²)", "scales quadratically");
+
+        /** Big O notation for this order of growth. */
+        private final String notation;
+        /** Description of how an operation with this order of growth scales. */
+        private final String description;
+
+        /**
+         * @param notation Big O notation for this order of growth.
+         * @param description Description of how an operation with this order of growth scales.
+         */
+        Growth(String notation, String description) {
+            this.notation = notation;
+            this.description = description;
+        }
+
+        /**
+         * @param exponent The exponent k of a fitted curve time = c * n^k.
+         * @return The order of growth nearest to the curve.
+         */
+        static Growth ofExponent(double exponent) {
+            if (exponent < 0.5) {
+                return CONSTANT;
+            } else if (exponent < 1.5) {
+                return LINEAR;
+            }
+            return QUADRATIC;
+        }
+    }
+
+    /**
+     * Histogram of latencies in nanoseconds.  Buckets are narrow for short latencies and wide for long ones, as in an
+     * HDR histogram, so that every latency is recorded to within an eighth of its value in a small fixed amount of
+     * memory.
+     */
+    private static class LatencyHistogram {
+        /** Number of bits after the most significant bit of a latency that determine its bucket. */
+        private static final int SUB_BUCKET_BITS = 3;
+        /** Number of buckets between consecutive powers of two. */
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        /** Number of latencies recorded in each bucket. */
+        private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+        /** Number of latencies recorded. */
+        private long count;
+        /** Longest latency recorded. */
+        private long max;
+        /** Sum of the sizes of the list at which each latency was recorded. */
+        private long sizeSum;
+
+        /**
+         * @param nanos The latency to record.
+         * @param size The size of the list when the operation began.
+         */
+        void record(long nanos, int size) {
+            this.counts[bucket(Math.max(nanos, 0))]++;
+            this.count++;
+            this.max = Math.max(this.max, nanos);
+            this.sizeSum += size;
+        }
+
+        /**
+         * @return The mean size of the list at which latencies were recorded.
+         */
+        double meanSize() {
+            return (double) this.sizeSum / this.count;
+        }
+
+        /**
+         * @param quantile The quantile, between 0 and 1.
+         * @return The latency below which the specified proportion of latencies lie, to within an eighth.
+         */
+        long percentile(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Math.min(this.max, bucketMidpoint(i));
+                }
+            }
+            return this.max;
+        }
+
+        /**
+         * @param nanos A non-negative latency.
+         * @return The index of the bucket in which the latency is recorded.
+         */
+        private static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) {
+                return (int) nanos;
+            }
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @param bucket The index of a bucket.
+         * @return The latency in the middle of the range recorded in the bucket.
+         */
+        private static long bucketMidpoint(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowest + ((1L << shift) >> 1);
+        }
+    }
+
+    /**
+     * Latencies of an operation on the underlying LinkedList, grouped by the size of the list so that the way in which
+     * the operation scales can be estimated.
+     */
+    private static class OperationProfile {
+        /** Latencies of every call of the operation. */
+        private final LatencyHistogram all = new LatencyHistogram();
+        /** Latencies of calls on lists of 2^(i - 1) to 2^i - 1 elements at index i, or null if there are none. */
+        private final LatencyHistogram[] bySize = new LatencyHistogram[Integer.SIZE];
+
+        /**
+         * @param nanos The time taken by a call of the operation.
+         * @param size The size of the list when the call began.
+         */
+        void record(long nanos, int size) {
+            this.all.record(nanos, size);
+            int index = Integer.SIZE - Integer.numberOfLeadingZeros(size);
+            if (this.bySize[index] == null) {
+                this.bySize[index] = new LatencyHistogram();
+            }
+            this.bySize[index].record(nanos, size);
+        }
+
+        /**
+         * Estimate how the operation scales by fitting a curve time = c * n^k to the median latency at each size of the
+         * list on a log-log scale.  Only the largest sizes are used, since the time taken on small lists is dominated
+         * by constant overheads, and sizes with few calls are ignored.
+         * <p>
+         * Code that has not yet been compiled, and garbage collections, only ever make an operation slower, and
+         * programs usually grow their lists as they warm up, so the median latency at a size is replaced with the
+         * shortest one at any larger size to remove the slowdown.  The exponent is then the median of the slopes
+         * between every pair of sizes, so that any slowdown that remains does not skew it as it would a least squares
+         * fit.
+         *
+         * @return The order of growth nearest to the fitted curve, or null if too few sizes have been profiled.
+         */
+        Growth fitGrowth() {
+            double largestSize = 0;
+            for (LatencyHistogram histogram : this.bySize) {
+                if (histogram != null && histogram.count >= MIN_FIT_CALLS) {
+                    largestSize = Math.max(largestSize, histogram.meanSize());
+                }
+            }
+            double smallestSize = Math.max(MIN_FIT_SIZE, largestSize / (1 << FIT_OCTAVES));
+
+            // Collected from the largest size down so that each latency can be bounded by those at larger sizes
+            double[] logSizes = new double[this.bySize.length];
+            double[] logLatencies = new double[this.bySize.length];
+            int points = 0;
+            long shortestLatency = Long.MAX_VALUE;
+            for (int i = this.bySize.length - 1; i >= 0; i--) {
+                LatencyHistogram histogram = this.bySize[i];
+                if (histogram == null || histogram.count < MIN_FIT_CALLS || histogram.meanSize() < smallestSize) {
+                    continue;
+                }
+                shortestLatency = Math.min(shortestLatency, histogram.percentile(0.5));
+                logSizes[points] = Math.log(histogram.meanSize());
+                logLatencies[points] = Math.log(Math.max(1, shortestLatency));
+                points++;
+            }
+            if (points < MIN_FIT_POINTS || logSizes[0] - logSizes[points - 1] < Math.log(MIN_FIT_SPAN)) {
+                return null;
+            }
+
+            // Sizes are in decreasing order, so every slope is between distinct sizes
+            double[] slopes = new double[points * (points - 1) / 2];
+            int slopeCount = 0;
+            for (int i = 0; i < points; i++) {
+                for (int j = i + 1; j < points; j++) {
+                    slopes[slopeCount++] = (logLatencies[j] - logLatencies[i]) / (logSizes[j] - logSizes[i]);
+                }
+            }
+            Arrays.sort(slopes);
+            double median = (slopeCount % 2 == 1) ? slopes[slopeCount / 2]
+                    : (slopes[slopeCount / 2 - 1] + slopes[slopeCount / 2]) / 2;
+            return Growth.ofExponent(median);
+        }
+    }
+    //endregion
+
+    //region Sampling
+    /** Number of logged operations between halvings of the times accumulated by the overhead controller. */
+    private static final int OVERHEAD_DECAY_INTERVAL = 4096;
+    /** Seed of the choices made by reservoir sampling, fixed so that the same test always draws the same diagrammes. */
+    private static final long RESERVOIR_SEED = 0x4C4C56L;
+
+    /**
+     * Begin timing the logging of an operation, if diagrammes are sampled to an overhead budget.  Must be paired with
+     * a call to stopLogging() once the operation has been logged.
+     *
+     * @return The time at which logging began, or NOT_PROFILED if it is not timed.
+     */
+    private long startLogging() {
+        return (this.sampling != null && this.sampling.isAdaptive()) ? System.nanoTime() : NOT_PROFILED;
+    }
+
+    /**
+     * Record the time taken to log an operation in the sampling policy.
+     * @param start The time returned by startLogging() before the operation was logged.
+     */
+    private void stopLogging(long start) {
+        if (start != NOT_PROFILED) {
+            this.sampling.recordLoggingTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Policy deciding which modifications of the list are drawn in diagrammes.  The first sampleFirst modifications
+     * are always drawn.  After them, a modification is selected if it is a multiple of sampleInterval modifications
+     * past them, or by reservoir sampling of its kind of operation; if neither is enabled, every modification is
+     * selected.  A transcript is written as it goes, so diagrammes already drawn cannot be evicted from a reservoir as
+     * they would be in Algorithm R: instead, the i-th modification of each kind is drawn with the probability that
+     * Algorithm R would have it in the reservoir at that point, min(1, reservoirSize / i), so rare operations are
+     * always drawn and common ones ever more rarely.
+     * <p>
+     * If an overhead budget is set, selected modifications are only drawn while the time spent logging operations is
+     * within the budget as a fraction of the time spent in the LinkedList's own operations.  Both times are halved at
+     * regular intervals, so the controller follows the cost of recent operations as the list grows.  Modifications
+     * that are not drawn are still logged as a single line.
+     */
+    private static class SamplingPolicy {
+        /** Number of modifications that are always drawn. */
+        private final int sampleFirst;
+        /** Interval between modifications selected after the first sampleFirst, or 1 if not sampled by interval. */
+        private final int sampleInterval;
+        /** Number of modifications of each kind in the reservoir, or 0 if not sampled by reservoir. */
+        private final int reservoirSize;
+        /** Maximum time spent logging as a fraction of the time spent in the LinkedList, or 0 for no limit. */
+        private final double overheadBudget;
+        /** Source of the choices made by reservoir sampling. */
+        private final SplittableRandom random = new SplittableRandom(RESERVOIR_SEED);
+        /** Number of modifications of each kind thus far, indexed by operation. */
+        private final long[] kindCounts = new long[Operation.values().length];
+        /** Number of modifications considered thus far. */
+        private long modificationCount;
+        /** Number of modifications whose diagrammes were not drawn. */
+        private long skippedCount;
+        /** Time in nanoseconds spent in the LinkedList's own operations, halved at intervals. */
+        private long listNanos;
+        /** Time in nanoseconds spent logging operations, halved at intervals. */
+        private long loggingNanos;
+        /** Number of operations logged since the accumulated times were last halved. */
+        private int loggedSinceDecay;
+
+        /**
+         * @param options The options of a view.
+         * @return The sampling policy specified by the options, or null if every modification should be drawn.
+         */
+        static SamplingPolicy forOptions(Options options) {
+            if (!options.drawDiagrammes || (options.sampleInterval == 1 && options.reservoirSize == 0
+                    && options.overheadBudget == 0)) {
+                return null;
+            }
+            return new SamplingPolicy(options);
+        }
+
+        /**
+         * @param options The options specifying the policy.
+         */
+        private SamplingPolicy(Options options) {
+            this.sampleFirst = options.sampleFirst;
+            this.sampleInterval = options.sampleInterval;
+            this.reservoirSize = options.reservoirSize;
+            this.overheadBudget = options.overheadBudget;
+        }
+
+        /**
+         * @return true if diagrammes are throttled to an overhead budget, which requires every operation to be timed.
+         */
+        boolean isAdaptive() {
+            return this.overheadBudget > 0;
+        }
+
+        /**
+         * Decide whether to draw the diagramme of a modification of the list.
+         * @param operation The operation that modified the list.
+         * @return true if the diagramme should be drawn, false if the operation should be logged without it.
+         */
+        boolean sample(Operation operation) {
+            long number = this.modificationCount++;
+            long kindNumber = ++this.kindCounts[operation.ordinal()];
+            if (number < this.sampleFirst) {
+                return true;
+            }
+
+            boolean selected = this.sampleInterval == 1 && this.reservoirSize == 0;
+            if (this.sampleInterval > 1 && (number - this.sampleFirst) % this.sampleInterval == 0) {
+                selected = true;
+            } else if (this.reservoirSize > 0
+                    && (kindNumber <= this.reservoirSize || this.random.nextLong(kindNumber) < this.reservoirSize)) {
+                selected = true;
+            }
+            if (selected && this.isAdaptive() && this.loggingNanos > this.overheadBudget * this.listNanos) {
+                selected = false;
+            }
+            if (!selected) {
+                this.skippedCount++;
+            }
+            return selected;
+        }
+
+        /**
+         * @param nanos The time in nanoseconds taken by an operation of the LinkedList.
+         */
+        void recordListTime(long nanos) {
+            this.listNanos += nanos;
+        }
+
+        /**
+         * @param nanos The time in nanoseconds taken to log an operation, including capturing and, if the view is
+         *              synchronous, writing its diagramme.
+         */
+        void recordLoggingTime(long nanos) {
+            this.loggingNanos += nanos;
+            if (++this.loggedSinceDecay == OVERHEAD_DECAY_INTERVAL) {
+                this.listNanos /= 2;
+                this.loggingNanos /= 2;
+                this.loggedSinceDecay = 0;
+            }
+        }
+    }
+    //endregion
+
+    //region Invariant checking
+    /** Default number of modifications between full checks of the list's structure. */
+    private static final int DEFAULT_FULL_CHECK_INTERVAL = 1000;
+    /** Maximum number of violations described in a single entry; any others are only counted. */
+    private static final int MAX_REPORTED_VIOLATIONS = 5;
+    /** Notice of violations of the list's invariants.  Must be formatted with the descriptions of the violations. */
+    private static final String INVARIANT_VIOLATION_NOTICE =
+            "<strong style=\"color: " + MODIFIED_COLOUR + ";\">Invariant violated:</strong> %s";
+
+    /**
+     * Check the structure of this list after a modification, if invariants are checked, and add any violations found
+     * to the summary of the modification's entry and the log.  Only the nodes around the modification are checked,
+     * unless fullCheckInterval modifications have been made since the list was last checked in full.
+     *
+     * @param snapshot The snapshot captured after the modification, or null if none was captured.
+     * @param name The description of the modification.
+     * @param fileName The name of the file from which the modification was made.
+     * @param lineNumber The line from which the modification was made.
+     * @param summary The summary of the modification's entry, or null for none.
+     * @return The summary, followed by a notice of any violations.
+     */
+    private String checkStructure(Snapshot snapshot, String name, String fileName, int lineNumber, String summary) {
+        if (!this.checkInvariants) {
+            return summary;
+        }
+        InvariantViolations violations = new InvariantViolations();
+        if (snapshot != null) {
+            this.checkModifiedNodes(snapshot, violations);
+        }
+        if (this.fullCheckInterval > 0 && ++this.modificationsSinceFullCheck >= this.fullCheckInterval) {
+            this.modificationsSinceFullCheck = 0;
+            this.checkAllNodes(violations);
+        }
+        if (violations.isEmpty()) {
+            return summary;
+        }
+
+        String description = violations.describe();
+        LOGGER.warning(String.format("%s at %s:%d violated the list's invariants: %s", name, fileName, lineNumber,
+                description));
+        String notice = String.format(INVARIANT_VIOLATION_NOTICE, description);
+        return (summary == null) ? notice : summary + " " + notice;
+    }
+
+    /**
+     * Check the invariants of the nodes whose links differ from the previous snapshot, and those of their neighbours,
+     * using the references captured in the specified snapshot.  The ends of the list and the number of reachable
+     * nodes are also checked, as neither requires a traversal.  Every change since the previous diagramme is covered,
+     * as it is the snapshot against which modifications are highlighted.
+     *
+     * @param snapshot The snapshot to check.
+     * @param violations The violations found thus far.
+     */
+    private void checkModifiedNodes(Snapshot snapshot, InvariantViolations violations) {
+        this.checkEnds(snapshot.rawHeadNode, snapshot.rawTailNode, violations);
+        // A circular list's dummy header node is reachable as well as its elements
+        int expectedCount = this.viewedSize() + (this.schema.hasTail() ? 0 : 1);
+        if (snapshot.rawHeadNode != null && snapshot.dotNodes.size() != expectedCount) {
+            violations.add(String.format("size() is %d, but %d nodes are reachable from the %s", this.viewedSize(),
+                    snapshot.dotNodes.size(), this.schema.hasTail() ? "head and tail" : "header"));
+        }
+
+        Map<Object, DotListNode> previousNodes = snapshot.getPreviousDotNodes();
+        for (DotListNode node : snapshot.dotNodes.values()) {
+            DotListNode lastNode = previousNodes.get(node.baseNode);
+            if (lastNode == null || node.prevNode != lastNode.prevNode || node.nextNode != lastNode.nextNode) {
+                this.checkLinks(node, snapshot, violations);
+                this.checkLinks(snapshot.dotNodes.get(node.prevNode), snapshot, violations);
+                this.checkLinks(snapshot.dotNodes.get(node.nextNode), snapshot, violations);
+            }
+        }
+    }
+
+    /**
+     * Check that the specified node's neighbours link back to it, and that it is at an end of the list if either of
+     * its references is null.
+     *
+     * @param node The node to check, or null to check nothing.
+     * @param snapshot The snapshot containing the node.
+     * @param violations The violations found thus far.
+     */
+    private void checkLinks(DotListNode node, Snapshot snapshot, InvariantViolations violations) {
+        if (node == null) {
+            return;
+        }
+        if (node.nextNode == null) {
+            if (!this.schema.hasTail()) {
+                violations.add(this.describeNode(node.baseNode) + "'s next is null in a circular list");
+            } else if (node.baseNode != snapshot.rawTailNode) {
+                violations.add(this.describeNode(node.baseNode) + "'s next is null, but the tail is "
+                        + this.describeNode(snapshot.rawTailNode));
+            }
+        } else {
+            DotListNode next = snapshot.dotNodes.get(node.nextNode);
+            if (next.prevNode != node.baseNode) {
+                violations.add(String.format("%s's next is %s, whose prev is %s", this.describeNode(node.baseNode),
+                        this.describeNode(next.baseNode), this.describeNode(next.prevNode)));
+            }
+        }
+        if (node.prevNode == null) {
+            if (!this.schema.hasTail()) {
+                violations.add(this.describeNode(node.baseNode) + "'s prev is null in a circular list");
+            } else if (node.baseNode != snapshot.rawHeadNode) {
+                violations.add(this.describeNode(node.baseNode) + "'s prev is null, but the head is "
+                        + this.describeNode(snapshot.rawHeadNode));
+            }
+        } else {
+            DotListNode prev = snapshot.dotNodes.get(node.prevNode);
+            if (prev.nextNode != node.baseNode) {
+                violations.add(String.format("%s's prev is %s, whose next is %s", this.describeNode(node.baseNode),
+                        this.describeNode(prev.baseNode), this.describeNode(prev.nextNode)));
+            }
+        }
+    }
+
+    /**
+     * Check that the header and tail of this list are at its ends.
+     * @param headNode The node referenced by the list's header.
+     * @param tailNode The node referenced by the list's tail, or null if the list has no tail.
+     * @param violations The violations found thus far.
+     */
+    private void checkEnds(Object headNode, Object tailNode, InvariantViolations violations) {
+        if (!this.schema.hasTail()) {
+            if (headNode == null) {
+                violations.add("the header of a circular list is null");
+            }
+            return;
+        }
+        if ((headNode == null) != (tailNode == null)) {
+            violations.add(String.format("the head is %s, but the tail is %s", this.describeNode(headNode),
+                    this.describeNode(tailNode)));
+            return;
+        }
+        if (headNode != null && this.schema.getPrev(headNode) != null) {
+            violations.add("the head is " + this.describeNode(headNode) + ", whose prev is not null");
+        }
+        if (tailNode != null && this.schema.getNext(tailNode) != null) {
+            violations.add("the tail is " + this.describeNode(tailNode) + ", whose next is not null");
+        }
+    }
+
+    /**
+     * Check the invariants of every node of this list, following next references from the header and checking that
+     * each node's next node links back to it.  The walk stops at null, on returning to the header, or on detecting any
+     * other cycle with Brent's algorithm, so corrupted lists are checked in linear time.
+     *
+     * @param violations The violations found thus far.
+     */
+    private void checkAllNodes(InvariantViolations violations) {
+        Object headNode = this.schema.getHead(this.viewedList());
+        Object tailNode = this.schema.getTail(this.viewedList());
+        this.checkEnds(headNode, tailNode, violations);
+
+        Object node = headNode;
+        Object lastNode = null;
+        Object checkpoint = headNode;
+        int count = 0;
+        int steps = 0;
+        int stepLimit = 1;
+        while (node != null) {
+            count++;
+            Object nextNode = this.schema.getNext(node);
+            if (nextNode != null && this.schema.getPrev(nextNode) != node) {
+                violations.add(String.format("%s's next is %s, whose prev is %s", this.describeNode(node),
+                        this.describeNode(nextNode), this.describeNode(this.schema.getPrev(nextNode))));
+            }
+            lastNode = node;
+            node = nextNode;
+            if (node == headNode) {
+                break;
+            } else if (node == checkpoint) {
+                violations.add("following next from " + this.describeNode(headNode)
+                        + " enters a cycle that does not return to it");
+                return;
+            }
+            if (++steps == stepLimit) {
+                // Brent's algorithm: move the checkpoint ahead at doubling intervals
+                checkpoint = node;
+                stepLimit <<= 1;
+                steps = 0;
+            }
+        }
+
+        if (this.schema.hasTail()) {
+            if (node != null) {
+                violations.add("following next from the head returns to it, but the list has a tail");
+                return;
+            } else if (lastNode != tailNode) {
+                violations.add(String.format("the last node reached from the head is %s, but the tail is %s",
+                        this.describeNode(lastNode), this.describeNode(tailNode)));
+            }
+        } else if (headNode != null && node == null) {
+            violations.add("following next from the header reaches null rather than the header");
+            return;
+        }
+        int expectedCount = this.viewedSize() + (this.schema.hasTail() ? 0 : 1);
+        if (headNode != null && count != expectedCount) {
+            violations.add(String.format("size() is %d, but %d nodes are reached from the %s", this.viewedSize(),
+                    count, this.schema.hasTail() ? "head" : "header"));
+        }
+    }
+
+    /**
+     * @param node A LinkedList node, or null.
+     * @return A description of the node for reports of violations, such as "node #12 (7)".
+     */
+    private String describeNode(Object node) {
+        if (node == null) {
+            return "null";
+        } else if (!this.schema.hasTail() && node == this.schema.getHead(this.viewedList())) {
+            return "the header node";
+        }
+        return "node #" + this.nodeIds.idOf(node) + " (" + this.renderElement(this.schema.getData(node)) + ")";
+    }
+
+    /**
+     * Violations of a list's invariants found by a single check, with duplicates removed.
+     */
+    private static class InvariantViolations {
+        /**
+         * Descriptions of the first MAX_REPORTED_VIOLATIONS violations found, in the order in which they were found.
+         */
+        private final ArrayList<String> descriptions = new ArrayList<>();
+        /** Number of distinct violations found, including those not described. */
+        private int count;
+
+        /**
+         * @param description The description of a violation, which is ignored if it has already been found.
+         */
+        void add(String description) {
+            if (this.descriptions.contains(description)) {
+                return;
+            }
+            if (this.descriptions.size() < MAX_REPORTED_VIOLATIONS) {
+                this.descriptions.add(description);
+            }
+            this.count++;
+        }
+
+        /**
+         * @return true if no violations have been found, false otherwise.
+         */
+        boolean isEmpty() {
+            return this.count == 0;
+        }
+
+        /**
+         * @return The descriptions of the violations, separated by semicolons and followed by the number of any that
+         *         were not described.
+         */
+        String describe() {
+            String description = String.join("; ", this.descriptions) + '.';
+            int omitted = this.count - this.descriptions.size();
+            return (omitted == 0) ? description : description + String.format(" (%d more)", omitted);
+        }
+    }
+    //endregion
+
+    //region Flight Recorder events
+    /**
+     * Return the number of bytes written to the transcript thus far.  Must only be called from the thread that writes
+     * the transcript.
+     *
+     * @return The number of bytes written, including those not yet written to the file.
+     */
+    private long transcriptSize() {
+        if (this.traceWriter != null) {
+            return this.traceWriter.position();
+        }
+        // LinkedList's constructor may call its own methods before the transcript has been opened
+        return (this.htmlWriter == null) ? 0 : this.endedSegmentsSize + this.htmlWriter.size();
+    }
+
+    /**
+     * @return The number of bytes written to the transcript thus far if it is written by the thread that performs
+     *         operations, or 0 if it is written by the writer thread.
+     */
+    private long callerTranscriptSize() {
+        LinkedListView<E> root = this.root;
+        return (root.recordQueue == null) ? root.transcriptSize() : 0;
+    }
+
+    /**
+     * Flight Recorder event for an operation called on a LinkedListView from outside of LinkedList.  The duration of
+     * the event is that of the whole call, including the time taken to log it, so the overhead of the view is the
+     * difference between it and linkedListDuration.
+     */
+    @Name("LinkedListView.Operation")
+    @Label("LinkedList Operation")
+    @Category("LinkedListView")
+    @Description("An operation called on a LinkedListView, including the time taken to log it")
+    @StackTrace(false)
+    private static class OperationEvent extends Event {
+        @Label("Operation")
+        @Description("Name of the IList method that was called")
+        private String operation;
+
+        @Label("Arguments")
+        @Description("Arguments with which the method was called, as they would be written in Java")
+        private String arguments;
+
+        @Label("Size")
+        @Description("Size of the list after the operation")
+        private int size;
+
+        @Label("Caller")
+        @Description("Stack frame from which the method was called")
+        private String caller;
+
+        @Label("LinkedList Duration")
+        @Description("Time taken by the method of the underlying LinkedList")
+        @Timespan(Timespan.NANOSECONDS)
+        private long linkedListDuration;
+
+        @Label("Snapshot Duration")
+        @Description("Time taken to capture the structure of the list for diagrammes and history")
+        @Timespan(Timespan.NANOSECONDS)
+        private long snapshotDuration;
+
+        @Label("Bytes Written")
+        @Description("Bytes written to the transcript during the operation, or 0 if it is written by the writer thread")
+        @DataAmount(DataAmount.BYTES)
+        private long bytesWritten;
+
+        /** Size of the transcript in bytes when the operation began; not recorded. */
+        private transient long startSize;
+    }
+
+    /**
+     * Flight Recorder event for writing a record to the transcript, on the writer thread if the transcript is written
+     * asynchronously.
+     */
+    @Name("LinkedListView.TranscriptWrite")
+    @Label("Transcript Write")
+    @Category("LinkedListView")
+    @Description("Operations and their diagramme written to a LinkedListView transcript")
+    @StackTrace(false)
+    private static class TranscriptWriteEvent extends Event {
+        @Label("Operation")
+        @Description("Header of the last operation written")
+        private String operation;
+
+        @Label("Operation Count")
+        @Description("Number of operation headers written, more than one if operations were merged by the writer")
+        private int operationCount;
+
+        @Label("Diagramme")
+        @Description("Whether a diagramme was written after the operations")
+        private boolean diagramme;
+
+        @Label("Bytes Written")
+        @DataAmount(DataAmount.BYTES)
+        private long bytesWritten;
+    }
+    //endregion
+
+    //region Node identifiers
+    /**
+     * Allocator of identifiers for LinkedList nodes, which are assigned in increasing order the first time that a node
+     * is seen and remain the same for as long as the node exists.  Nodes are compared by identity so that the node
+     * class's equals() and hashCode() are never called, and are only weakly referenced so that nodes removed from the
+     * list may still be garbage collected.
+     */
+    private static class NodeIdAllocator {
+        /** Initial number of buckets in the table, which must be a power of two. */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /** Hash table buckets, each containing a chain of entries. */
+        private IdEntry[] table = new IdEntry[INITIAL_CAPACITY];
+        /** Number of entries in the table, including those whose nodes have been collected but not yet expunged. */
+        private int size = 0;
+        /** The identifier to assign to the next unseen node. */
+        private long nextId = 0;
+        /** Queue to which entries are enqueued once their nodes have been collected. */
+        private final ReferenceQueue<Object> collectedNodes = new ReferenceQueue<>();
+
+        /**
+         * Return the identifier of the specified node, allocating a new one if the node has not been seen before.
+         * @param node The LinkedList node whose identifier to return.
+         * @return The identifier of the node.
+         */
+        public long idOf(Object node) {
+            this.expungeCollected();
+            int hash = hash(node);
+            for (IdEntry entry = this.table[hash & (this.table.length - 1)]; entry != null; entry = entry.next) {
+                if (entry.hash == hash && entry.get() == node) {
+                    return entry.id;
+                }
+            }
+
+            // Unseen node: allocate a new identifier
+            if (this.size >= this.table.length - (this.table.length >>> 2)) {
+                this.resize();
+            }
+            int bucket = hash & (this.table.length - 1);
+            this.table[bucket] = new IdEntry(node, hash, this.nextId, this.table[bucket], this.collectedNodes);
+            this.size++;
+            return this.nextId++;
+        }
+
+        /**
+         * @param node The node to hash.
+         * @return The identity hash code of the node, with high bits spread downward.
+         */
+        private static int hash(Object node) {
+            int hash = System.identityHashCode(node);
+            return hash ^ (hash >>> 16);
+        }
 
-            // Print edge connecting to next (must come first to preserve rankdir)
-            if (this.nextNode != null) {
-                htmlWriter.write(String.format("  %s%s:next:c -> %s%s:nw [",
-                        DOT_PREFIX, this.getUUID(), DOT_PREFIX, nodeCache.get(this.nextNode).getUUID()));
-                writeModifiedColour("color", newNode, !newNode
-                        && (lastDotNodes.get(this.baseNode).nextNode != this.nextNode));
-                // Unconstrain references to header
-                if (edgeConnectsHeader(this.baseNode, this.nextNode)) {
-                    htmlWriter.write(" constraint=false");
+        /**
+         * Remove all entries whose nodes have been garbage collected from the table.
+         */
+        private void expungeCollected() {
+            for (Object collected; (collected = this.collectedNodes.poll()) != null; ) {
+                IdEntry entry = (IdEntry) collected;
+                int bucket = entry.hash & (this.table.length - 1);
+                IdEntry previous = null;
+                for (IdEntry current = this.table[bucket]; current != null; current = current.next) {
+                    if (current == entry) {
+                        if (previous == null) {
+                            this.table[bucket] = current.next;
+                        } else {
+                            previous.next = current.next;
+                        }
+                        this.size--;
+                        break;
+                    }
+                    previous = current;
                 }
-                htmlWriter.write(END_NODE_ATTRIBUTES);
             }
+        }
 
-            // Print edge connecting to previous
-            if (this.prevNode != null) {
-                htmlWriter.write(String.format("  %s%s:prev:c -> %s%s:se [",
-                        DOT_PREFIX, this.getUUID(), DOT_PREFIX, nodeCache.get(this.prevNode).getUUID()));
-                writeModifiedColour("color", newNode, !newNode
-                        && (lastDotNodes.get(this.baseNode).prevNode != this.prevNode));
-                // Unconstrain references to header
-                if (edgeConnectsHeader(this.baseNode, this.prevNode)) {
-                    htmlWriter.write(" constraint=false");
+        /**
+         * Double the number of buckets in the table, dropping any entries whose nodes have been collected.
+         */
+        private void resize() {
+            IdEntry[] newTable = new IdEntry[this.table.length * 2];
+            for (IdEntry entry : this.table) {
+                while (entry != null) {
+                    IdEntry next = entry.next;
+                    if (entry.get() == null) {
+                        this.size--;
+                    } else {
+                        int bucket = entry.hash & (newTable.length - 1);
+                        entry.next = newTable[bucket];
+                        newTable[bucket] = entry;
+                    }
+                    entry = next;
                 }
-                htmlWriter.write(END_NODE_ATTRIBUTES);
             }
+            this.table = newTable;
         }
 
         /**
-         * Determine whether the either of the specified nodes in an edge is the
-         * list's header node.  Used to improve rendering of circular linked
-         * lists.
+         * Weakly-referenced mapping from a LinkedList node to its identifier.
+         */
+        private static class IdEntry extends WeakReference<Object> {
+            /** Hash of the node, retained so that the entry can be found after the node is collected. */
+            private final int hash;
+            /** The identifier of the node. */
+            private final long id;
+            /** The next entry in the same bucket. */
+            private IdEntry next;
+
+            /**
+             * @param node The node to which this entry refers.
+             * @param hash The hash of the node.
+             * @param id The identifier of the node.
+             * @param next The next entry in the same bucket.
+             * @param queue The queue to which to enqueue this entry once the node is collected.
+             */
+            IdEntry(Object node, int hash, long id, IdEntry next, ReferenceQueue<Object> queue) {
+                super(node, queue);
+                this.hash = hash;
+                this.id = id;
+                this.next = next;
+            }
+        }
+    }
+    //endregion
+
+    //region Configuration
+    /**
+     * Options with which to configure a LinkedListView.  Every setter returns the options themselves so that calls may
+     * be chained:
+     * <pre>
+     * new LinkedListView&lt;&gt;("TestOutput.html", new LinkedListView.Options().setKeyframeInterval(50))
+     * </pre>
+     */
+    public static class Options {
+        /** Whether to highlight inter-operation modifications. */
+        private boolean highlightModifications = true;
+        /** Whether to draw a diagramme after each operation that modifies the list. */
+        private boolean drawDiagrammes = true;
+        /** Maximum number of characters of an element's string representation to write, or 0 for no limit. */
+        private int maxElementLength = 0;
+        /** Number of neighbours drawn on either side of each changed node, or -1 to draw every node. */
+        private int windowRadius = -1;
+        /** Whether to record the state of the list after every operation for later queries. */
+        private boolean recordHistory = false;
+        /** Whether to write modifying operations that leave the list unchanged without diagrammes. */
+        private boolean skipUnchangedDiagrammes = true;
+        /** Number of consecutive identical operations written before further ones are coalesced, or 0 for none. */
+        private int coalesceThreshold = 0;
+        /** Maximum time in milliseconds spanned by a single coalesced entry, or 0 for no limit. */
+        private long coalesceWindowMillis = 0;
+        /** Format in which to write the transcript. */
+        private OutputFormat outputFormat = OutputFormat.HTML;
+        /** Whether diagrammes are laid out only when they are scrolled into view. */
+        private boolean lazyRendering = false;
+        /** Name of a local copy of viz.js to embed in lazily rendered transcripts, or null to load it from a CDN. */
+        private String rendererScript = null;
+        /** Maximum number of rendered diagrammes cached by the lazy viewer. */
+        private int renderCacheSize = DEFAULT_RENDER_CACHE_SIZE;
+        /** Number of diagrammes between full keyframes in delta mode, or 0 if every diagramme is written in full. */
+        private int keyframeInterval = 0;
+        /** Capacity of the writer thread's queue, or 0 if operations are written synchronously. */
+        private int writerQueueCapacity = 0;
+        /** Policy for handling operations recorded while the writer thread's queue is full. */
+        private QueueFullPolicy queueFullPolicy = QueueFullPolicy.BLOCK;
+        /** Whether to measure the time taken by each operation of the underlying LinkedList. */
+        private boolean profiling = false;
+        /** Whether the view may be used from several threads at once. */
+        private boolean threadSafe = false;
+        /** Whether to compress HTML transcripts with gzip as they are written. */
+        private boolean compressTranscript = false;
+        /** Size in bytes at which an HTML transcript is split into a new segment, or 0 if it is not segmented. */
+        private long maxSegmentSize = 0;
+        /** Size in bytes that the segments of an HTML transcript should not exceed in total, or 0 for no limit. */
+        private long maxTotalSize = 0;
+        /** Number of modifications whose diagrammes are always drawn before sampling begins. */
+        private int sampleFirst = 0;
+        /** Interval between sampled diagrammes, or 1 if diagrammes are not sampled by interval. */
+        private int sampleInterval = 1;
+        /** Number of diagrammes of each kind of operation kept by reservoir sampling, or 0 if it is not used. */
+        private int reservoirSize = 0;
+        /** Maximum time spent logging as a fraction of the time spent in the LinkedList, or 0 for no limit. */
+        private double overheadBudget = 0;
+        /** Whether to check the structure of the list after each modification. */
+        private boolean checkInvariants = false;
+        /** Number of modifications between full checks of the list's structure, or 0 if it is only checked locally. */
+        private int fullCheckInterval = DEFAULT_FULL_CHECK_INTERVAL;
+
+        /**
+         * @param highlightModifications Whether to highlight modifications to the list between operations.
+         * @return These options.
+         */
+        public Options setHighlightModifications(boolean highlightModifications) {
+            this.highlightModifications = highlightModifications;
+            return this;
+        }
+
+        /**
+         * @param drawDiagrammes Whether to draw a diagramme after each operation that modifies the list.  If false,
+         *                       the transcript lists the operations and their call sites only.
+         * @return These options.
+         */
+        public Options setDrawDiagrammes(boolean drawDiagrammes) {
+            this.drawDiagrammes = drawDiagrammes;
+            return this;
+        }
+
+        /**
+         * Write operations that could modify the list but leave it exactly as it was, such as remove() of an element
+         * that is not in the list or set() with the element already at that position, as a single line without a
+         * diagramme.  The list is checked by comparing a fingerprint of its nodes, their references, and the
+         * identities of their data before and after each operation, so an element replaced with an equal but
+         * distinct object still counts as a change.
          *
-         * @param node1 The first node in the edge.
-         * @param node2 The second node in the edge.
-         * @return true if node1 or node2 is the header node, false otherwise.
+         * @param skipUnchangedDiagrammes Whether to skip diagrammes of operations that leave the list unchanged.
+         * @return These options.
          */
-        private boolean edgeConnectsHeader(Object node1, Object node2) throws IllegalAccessException {
-            Object headerNode = headNodeField.get(LinkedListView.this);
-            return (node1 == headerNode) || (node2 == headerNode);
+        public Options setSkipUnchangedDiagrammes(boolean skipUnchangedDiagrammes) {
+            this.skipUnchangedDiagrammes = skipUnchangedDiagrammes;
+            return this;
+        }
+
+        /**
+         * Limit the length of elements in operation names and diagrammes, which keeps the transcript readable if the
+         * list contains elements with very long string representations.  Longer elements are truncated with an
+         * ellipsis.
+         *
+         * @param maxElementLength The maximum number of characters of each element to write, or 0 for no limit.
+         * @return These options.
+         */
+        public Options setMaxElementLength(int maxElementLength) {
+            if (maxElementLength < 0) {
+                throw new IllegalArgumentException("Maximum element length must not be negative.");
+            }
+            this.maxElementLength = maxElementLength;
+            return this;
+        }
+
+        /**
+         * Enable windowed diagrammes, which draw only the nodes that were added or modified by each operation, their
+         * neighbours within windowRadius nodes, and the nodes referenced by the list's header and tail.  Each run of
+         * nodes between them is drawn as a single placeholder, so diagrammes of small changes to long lists remain
+         * small.  Nodes added since the previous diagramme are always drawn, so the diagramme following runUnlogged()
+         * still contains every node that it added.  Diagrammes in delta mode and binary traces are always drawn in
+         * full.
+         *
+         * @param windowRadius The number of neighbours to draw on either side of each changed node, or -1 to draw
+         *                     every node.
+         * @return These options.
+         */
+        public Options setWindowRadius(int windowRadius) {
+            if (windowRadius < -1) {
+                throw new IllegalArgumentException("Window radius must be -1 or more.");
+            }
+            this.windowRadius = windowRadius;
+            return this;
+        }
+
+        /**
+         * Record the state of the list after every operation, so that the state after any operation and the
+         * differences between any two operations can be queried with getState() and getDiff().  Consecutive states
+         * share the states of every node that did not change, so the history costs memory in proportion to the number
+         * of changes to the list rather than its length multiplied by the number of operations.
+         *
+         * @param recordHistory Whether to record the history of the list.
+         * @return These options.
+         */
+        public Options setRecordHistory(boolean recordHistory) {
+            this.recordHistory = recordHistory;
+            return this;
+        }
+
+        /**
+         * Enable coalescing, in which long runs of the same modifying operation called from the same line, such as
+         * add() in a loop, are written as a single entry.  The first coalesceThreshold operations of each run are
+         * written individually; the rest are written together when the run ends, with one diagramme of their combined
+         * effect and a summary of the nodes that they added, removed, and modified.
+         *
+         * @param coalesceThreshold The number of consecutive identical operations to write individually, or 0 to
+         *                          write every operation individually.
+         * @return These options.
+         */
+        public Options setCoalesceThreshold(int coalesceThreshold) {
+            if (coalesceThreshold < 0) {
+                throw new IllegalArgumentException("Coalesce threshold must not be negative.");
+            }
+            this.coalesceThreshold = coalesceThreshold;
+            return this;
+        }
+
+        /**
+         * Limit the time spanned by a single coalesced entry, so that very long runs are written as a series of entries
+         * rather than one entry at the end of the run.
+         *
+         * @param coalesceWindowMillis The maximum time in milliseconds between the first and last operations of a
+         *                             coalesced entry, or 0 for no limit.
+         * @return These options.
+         */
+        public Options setCoalesceWindow(long coalesceWindowMillis) {
+            if (coalesceWindowMillis < 0) {
+                throw new IllegalArgumentException("Coalesce window must not be negative.");
+            }
+            this.coalesceWindowMillis = coalesceWindowMillis;
+            return this;
+        }
+
+        /**
+         * Write the transcript as a compact binary trace rather than HTML, which can be converted to HTML afterwards
+         * with convertTrace() or by running {@code java LinkedListView <trace file> <HTML file>}.  Diagrammes in the
+         * trace are stored as keyframes and deltas; the keyframe interval is taken from setKeyframeInterval() if set.
+         *
+         * @param outputFormat The format in which to write the transcript.
+         * @return These options.
+         */
+        public Options setOutputFormat(OutputFormat outputFormat) {
+            if (outputFormat == null) {
+                throw new IllegalArgumentException("Output format must not be null.");
+            }
+            this.outputFormat = outputFormat;
+            return this;
+        }
+
+        /**
+         * Lay out each diagramme only when it is scrolled into view, rather than all of them when the transcript is
+         * opened, so that long transcripts open instantly.  The Dot source of each diagramme is stored in the
+         * transcript, and rendered diagrammes are cached until they are among the least recently viewed.
+         *
+         * @param lazyRendering Whether to render diagrammes lazily.
+         * @return These options.
+         */
+        public Options setLazyRendering(boolean lazyRendering) {
+            this.lazyRendering = lazyRendering;
+            return this;
+        }
+
+        /**
+         * Embed a local copy of viz.js (version 1.8) in lazily rendered transcripts, so that they can be viewed without
+         * an Internet connection.  The file is read when the view is constructed.
+         *
+         * @param rendererScript The name of the viz.js file, or null to load viz.js from a CDN.
+         * @return These options.
+         */
+        public Options setRendererScript(String rendererScript) {
+            this.rendererScript = rendererScript;
+            return this;
+        }
+
+        /**
+         * @param renderCacheSize The maximum number of rendered diagrammes cached by the lazy viewer.
+         * @return These options.
+         */
+        public Options setRenderCacheSize(int renderCacheSize) {
+            if (renderCacheSize < 1) {
+                throw new IllegalArgumentException("Render cache size must be positive.");
+            }
+            this.renderCacheSize = renderCacheSize;
+            return this;
+        }
+
+        /**
+         * Enable delta mode, in which only every keyframeInterval-th diagramme contains the entire list and the
+         * diagrammes in between contain only the nodes that changed since the previous operation.  The transcript
+         * rebuilds each diagramme from these deltas when it is opened, which greatly reduces its size for long lists.
+         *
+         * @param keyframeInterval The number of diagrammes between keyframes, or 0 to write every diagramme in full.
+         * @return These options.
+         */
+        public Options setKeyframeInterval(int keyframeInterval) {
+            if (keyframeInterval < 0) {
+                throw new IllegalArgumentException("Keyframe interval must not be negative.");
+            }
+            this.keyframeInterval = keyframeInterval;
+            return this;
+        }
+
+        /**
+         * Write the transcript on a separate thread, so that operations only pay for capturing the list's structure.
+         * Operations are passed to the writer thread through a queue with the specified capacity, and all queued
+         * operations are written before close() returns.
+         *
+         * @param writerQueueCapacity The maximum number of operations waiting to be written, or 0 to write every
+         *                            operation synchronously on the thread that performed it.
+         * @return These options.
+         */
+        public Options setWriterQueueCapacity(int writerQueueCapacity) {
+            if (writerQueueCapacity < 0) {
+                throw new IllegalArgumentException("Writer queue capacity must not be negative.");
+            }
+            this.writerQueueCapacity = writerQueueCapacity;
+            return this;
+        }
+
+        /**
+         * @param queueFullPolicy The policy for handling operations recorded while the writer thread's queue is full.
+         * @return These options.
+         */
+        public Options setQueueFullPolicy(QueueFullPolicy queueFullPolicy) {
+            if (queueFullPolicy == null) {
+                throw new IllegalArgumentException("Queue full policy must not be null.");
+            }
+            this.queueFullPolicy = queueFullPolicy;
+            return this;
+        }
+
+        /**
+         * @param profiling Whether to measure the time taken by each operation of the underlying LinkedList, estimate
+         *                  how it scales with the length of the list, and report the operations that scale worse than
+         *                  they should when the view is closed.
+         * @return These options.
+         */
+        public Options setProfiling(boolean profiling) {
+            this.profiling = profiling;
+            return this;
+        }
+
+        /**
+         * @param threadSafe Whether the view may be used from several threads at once.  If true, each operation holds
+         *                   a lock on the view from start to finish, and is numbered and labelled with its thread in
+         *                   the transcript.  As with Collections.synchronizedList(), iterating over the list is not
+         *                   guarded, so other threads must not modify it during iteration.
+         * @return These options.
+         */
+        public Options setThreadSafe(boolean threadSafe) {
+            this.threadSafe = threadSafe;
+            return this;
+        }
+
+        /**
+         * @param compressTranscript Whether to compress the transcript with gzip as it is written, appending ".gz" to
+         *                           its file name.  Ignored for binary traces.
+         * @return These options.
+         */
+        public Options setCompressTranscript(boolean compressTranscript) {
+            this.compressTranscript = compressTranscript;
+            return this;
+        }
+
+        /**
+         * @param maxSegmentSize The size in bytes on disk at which to end the transcript's current segment and begin
+         *                       the next, or 0 to write the transcript to a single file.  Segments are ended between
+         *                       operations, so each can exceed this size by one entry.  Ignored for binary traces.
+         * @return These options.
+         */
+        public Options setMaxSegmentSize(long maxSegmentSize) {
+            if (maxSegmentSize < 0) {
+                throw new IllegalArgumentException("Maximum segment size must not be negative.");
+            }
+            this.maxSegmentSize = maxSegmentSize;
+            return this;
+        }
+
+        /**
+         * @param maxTotalSize The size in bytes on disk that the transcript's segments should not exceed in total, or
+         *                     0 for no limit.  The oldest segments are deleted to make room for new ones.  Only
+         *                     applies if a maximum segment size is set.
+         * @return These options.
+         */
+        public Options setMaxTotalSize(long maxTotalSize) {
+            if (maxTotalSize < 0) {
+                throw new IllegalArgumentException("Maximum total size must not be negative.");
+            }
+            this.maxTotalSize = maxTotalSize;
+            return this;
+        }
+
+        /**
+         * @param sampleFirst The number of modifications whose diagrammes are always drawn, however the rest are
+         *                    sampled.
+         * @return These options.
+         */
+        public Options setSampleFirst(int sampleFirst) {
+            if (sampleFirst < 0) {
+                throw new IllegalArgumentException("Number of modifications always sampled must not be negative.");
+            }
+            this.sampleFirst = sampleFirst;
+            return this;
+        }
+
+        /**
+         * Draw the diagramme of only every sampleInterval-th modification of the list after the first sampleFirst.
+         * Every other modification is logged as a single line.  If reservoir sampling is also enabled, a modification
+         * selected by either is drawn.
+         *
+         * @param sampleInterval The interval between drawn diagrammes, or 1 to draw every diagramme.
+         * @return These options.
+         */
+        public Options setSampleInterval(int sampleInterval) {
+            if (sampleInterval < 1) {
+                throw new IllegalArgumentException("Sample interval must be positive.");
+            }
+            this.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        /**
+         * Sample the diagrammes of each kind of operation independently, as a reservoir of the specified size would:
+         * the first reservoirSize modifications of each kind are drawn, and the i-th after them with probability
+         * reservoirSize / i.  Operations that are rarely called are therefore always drawn, while loops of the same
+         * operation draw a number of diagrammes that grows only logarithmically with their length.
+         *
+         * @param reservoirSize The number of diagrammes of each kind of operation to keep, or 0 to disable reservoir
+         *                      sampling.
+         * @return These options.
+         */
+        public Options setReservoirSize(int reservoirSize) {
+            if (reservoirSize < 0) {
+                throw new IllegalArgumentException("Reservoir size must not be negative.");
+            }
+            this.reservoirSize = reservoirSize;
+            return this;
+        }
+
+        /**
+         * Throttle diagrammes so that logging costs no more than the specified fraction of the time spent in the
+         * LinkedList's own operations, as measured while the test runs.  Diagrammes are skipped while logging is over
+         * budget, and drawn again once the list's operations have caught up.  As every operation is still logged,
+         * the budget cannot be met if logging a single line costs more than it allows, in which case only the
+         * diagrammes of the first sampleFirst modifications are drawn.
+         *
+         * @param overheadBudget The maximum time spent logging as a fraction of the time spent in the LinkedList,
+         *                       such as 0.1 for 10%, or 0 for no limit.
+         * @return These options.
+         */
+        public Options setOverheadBudget(double overheadBudget) {
+            if (!(overheadBudget >= 0) || Double.isInfinite(overheadBudget)) {
+                throw new IllegalArgumentException("Overhead budget must be a finite fraction of at least 0.");
+            }
+            this.overheadBudget = overheadBudget;
+            return this;
+        }
+
+        /**
+         * Check the structure of the list after each modification: that each node's next and previous nodes link back
+         * to it, that the head and tail are the first and last nodes, and that size() matches the number of nodes
+         * reachable in the list.  Only the nodes whose links changed since the previous diagramme and their neighbours
+         * are checked after each modification, so checking costs little even for long lists; the whole list is
+         * checked every fullCheckInterval modifications.  Modifications without diagrammes are only covered by the
+         * full checks.  Violations are logged and written below the entry of the modification that revealed them.
+         * Circular lists are expected to have a dummy header node.
+         *
+         * @param checkInvariants Whether to check the structure of the list.
+         * @return These options.
+         */
+        public Options setCheckInvariants(boolean checkInvariants) {
+            this.checkInvariants = checkInvariants;
+            return this;
+        }
+
+        /**
+         * @param fullCheckInterval The number of modifications between checks of the whole structure of the list if
+         *                          invariants are checked, or 0 to only check the nodes around each modification.
+         * @return These options.
+         */
+        public Options setFullCheckInterval(int fullCheckInterval) {
+            if (fullCheckInterval < 0) {
+                throw new IllegalArgumentException("Full check interval must not be negative.");
+            }
+            this.fullCheckInterval = fullCheckInterval;
+            return this;
+        }
+    }
+    //endregion
+
+    //region Iterator logging
+    /**
+     * An iterator over this list that logs how it is used.  Calls to next() and hasNext() only increment counters,
+     * and are written as a single entry once the iteration ends or another operation is logged, so that a loop over
+     * the list costs neither a stack walk nor a diagramme per element.  Each call to remove() is logged as an operation
+     * in its own right, and is coalesced like any other when it is called repeatedly from the same line.
+     */
+    private class LoggingIterator implements Iterator<E> {
+        /** The iterator over this list returned by LinkedList. */
+        private final Iterator<E> iterator;
+        /** The name of the file from which this iterator was created. */
+        private final String fileName;
+        /** The line from which this iterator was created, to which its calls to next() and hasNext() are attributed. */
+        private final int lineNumber;
+        /** Number of calls to next() since this iterator's calls were last written. */
+        private int nextCount;
+        /** Number of calls to hasNext() since this iterator's calls were last written. */
+        private int hasNextCount;
+        /** The element last returned by next(), or null if it has been removed. */
+        private E lastReturned;
+
+        /**
+         * @param iterator The iterator over this list returned by LinkedList.
+         * @param creator The stack frame from which this iterator was created.
+         */
+        LoggingIterator(Iterator<E> iterator, StackWalker.StackFrame creator) {
+            this.iterator = iterator;
+            this.fileName = creator.getFileName();
+            this.lineNumber = creator.getLineNumber();
+        }
+
+        @Override
+        public boolean hasNext() {
+            LinkedListView<E> view = LinkedListView.this;
+            view.lockOperations();
+            // Anything that LinkedList's iterator calls on the list is internal to this call
+            boolean external = view.callDepth++ == 0;
+            try {
+                boolean retVal = this.iterator.hasNext();
+                if (external) {
+                    this.becomePending();
+                    this.hasNextCount++;
+                    if (!retVal) {
+                        // The iteration is over, so there is no reason to wait for the next operation
+                        view.writeIteration();
+                    }
+                }
+                return retVal;
+            } finally {
+                view.callDepth--;
+                view.unlockOperations();
+            }
+        }
+
+        @Override
+        public E next() {
+            LinkedListView<E> view = LinkedListView.this;
+            view.lockOperations();
+            boolean external = view.callDepth++ == 0;
+            try {
+                E retVal = this.iterator.next();
+                if (external) {
+                    this.becomePending();
+                    this.nextCount++;
+                    this.lastReturned = retVal;
+                }
+                return retVal;
+            } finally {
+                view.callDepth--;
+                view.unlockOperations();
+            }
+        }
+
+        @Override
+        public void remove() {
+            LinkedListView<E> view = LinkedListView.this;
+            boolean external = view.enterOperation();
+            try {
+                StackWalker.StackFrame caller = null;
+                if (external) {
+                    // Calls made before this one are summarised in its entry, rather than written before it
+                    if (view.pendingIterator == this) {
+                        view.pendingIterator = null;
+                    }
+                    caller = view.beginOperation(Operation.ITERATOR_REMOVE);
+                }
+                long startNanos = view.startProfiling(external);
+                this.iterator.remove();
+                view.stopProfiling(Operation.ITERATOR_REMOVE, startNanos);
+                String summary = null;
+                if (caller != null) {
+                    summary = String.format("Removed <code>%s</code>, the element last returned by <code>next()</code>",
+                            view.renderElement(this.lastReturned));
+                    summary += (this.nextCount > 0 || this.hasNextCount > 0)
+                            ? String.format(", after %s.", this.describeCalls()) : ".";
+                    this.nextCount = 0;
+                    this.hasNextCount = 0;
+                }
+                this.lastReturned = null;
+                view.writeSummarisedOperation(caller, Operation.ITERATOR_REMOVE, summary);
+            } finally {
+                view.exitOperation();
+            }
+        }
+
+        /**
+         * Make this the iterator whose calls are next to be written, writing those of any other iterator first.
+         */
+        private void becomePending() {
+            LinkedListView<E> view = LinkedListView.this;
+            if (view.pendingIterator != this) {
+                view.activate();
+                view.writeIteration();
+                view.pendingIterator = this;
+            }
+        }
+
+        /**
+         * @return The calls to next() and hasNext() since this iterator's calls were last written, in prose.
+         */
+        private String describeCalls() {
+            return String.format("%d call%s to <code>next()</code> and %d to <code>hasNext()</code>", this.nextCount,
+                    (this.nextCount == 1) ? "" : "s", this.hasNextCount);
         }
     }
+
+    /**
+     * Write the calls to next() and hasNext() that pendingIterator has counted since they were last written as a
+     * single entry without a diagramme, as they cannot modify the list.  Must be called before any other entry is
+     * written, so that the transcript stays in the order in which the calls were made.
+     */
+    private void writeIteration() {
+        LoggingIterator iterator = this.pendingIterator;
+        if (iterator == null) {
+            return;
+        }
+        this.pendingIterator = null;
+        if (iterator.nextCount > 0) {
+            // Any pending coalesced entry consists of operations performed before these calls
+            this.flushRun();
+            String count = (iterator.nextCount == 1) ? "" : " ×" + iterator.nextCount;
+            String name = this.qualify("Iterator.next()" + count);
+            OperationHeader header = new OperationHeader(name, System.currentTimeMillis(), iterator.fileName,
+                    iterator.lineNumber, false, iterator.describeCalls() + ".");
+            this.assignSequence(header, Thread.currentThread());
+            this.loggedOperationCount++;
+            this.submitRecord(new OperationRecord(header, null));
+        }
+        // Calls to hasNext() alone are not worth an entry of their own
+        iterator.nextCount = 0;
+        iterator.hasNextCount = 0;
+    }
     //endregion
 
     //region IList public method overrides
     @Override
     public String toString() {
-        this.writeOperation("toString()", false);
-        return super.toString();
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.TO_STRING), Operation.TO_STRING);
+            }
+            long startNanos = this.startProfiling(external);
+            String retVal = (this.subList == null) ? super.toString() : this.subList.toString();
+            this.stopProfiling(Operation.TO_STRING, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public int size() {
-        this.writeOperation("size()", false);
-        return super.size();
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.SIZE), Operation.SIZE);
+            }
+            long startNanos = this.startProfiling(external);
+            int retVal = (this.subList == null) ? super.size() : this.subList.size();
+            this.stopProfiling(Operation.SIZE, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public boolean equals(Object obj) {
-        this.writeOperation(String.format("equals(%s)", obj.toString()), false);
-        return super.equals(obj);
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.EQUALS), Operation.EQUALS, obj);
+            }
+            long startNanos = this.startProfiling(external);
+            // LinkedList may read another list's fields directly, which a sub-list view keeps in its wrapped list
+            Object other = (obj instanceof LinkedListView && ((LinkedListView<?>) obj).subList != null)
+                    ? ((LinkedListView<?>) obj).subList : obj;
+            boolean retVal = (this.subList == null) ? super.equals(other) : this.subList.equals(other);
+            this.stopProfiling(Operation.EQUALS, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public int indexOf(E item) {
-        this.writeOperation(String.format("indexOf(%s)", item.toString()), false);
-        return super.indexOf(item);
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.INDEX_OF), Operation.INDEX_OF, item);
+            }
+            long startNanos = this.startProfiling(external);
+            int retVal = (this.subList == null) ? super.indexOf(item) : this.subList.indexOf(item);
+            this.stopProfiling(Operation.INDEX_OF, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public int indexOf(E item, int pos) {
-        this.writeOperation(String.format("indexOf(%s, %d)", item.toString(), pos), false);
-        return super.indexOf(item, pos);
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.INDEX_OF), Operation.INDEX_OF, item, pos);
+            }
+            long startNanos = this.startProfiling(external);
+            int retVal = (this.subList == null) ? super.indexOf(item, pos) : this.subList.indexOf(item, pos);
+            this.stopProfiling(Operation.INDEX_OF, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public E get(int pos) {
-        this.writeOperation(String.format("get(%d)", pos), false);
-        return super.get(pos);
+        boolean external = this.enterOperation();
+        try {
+            if (external) {
+                this.writeOperation(this.beginOperation(Operation.GET), Operation.GET, pos);
+            }
+            long startNanos = this.startProfiling(external);
+            E retVal = (this.subList == null) ? super.get(pos) : this.subList.get(pos);
+            this.stopProfiling(Operation.GET, startNanos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public E set(int pos, E item) {
-        E retVal = super.set(pos, item);
-        this.writeOperation(String.format("set(%d, %s)", pos, item.toString()), true);
-        return retVal;
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.SET) : null;
+            long startNanos = this.startProfiling(external);
+            E retVal = (this.subList == null) ? super.set(pos, item) : this.subList.set(pos, item);
+            this.stopProfiling(Operation.SET, startNanos);
+            this.writeOperation(caller, Operation.SET, pos, item);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public IList<E> getSubList(int start, int stop) {
-        this.writeOperation(String.format("getSubList(%d, %d)", start, stop), false);
-        return super.getSubList(start, stop);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.GET_SUB_LIST) : null;
+            long startNanos = this.startProfiling(external);
+            IList<E> retVal = (this.subList == null)
+                    ? super.getSubList(start, stop) : this.subList.getSubList(start, stop);
+            this.stopProfiling(Operation.GET_SUB_LIST, startNanos);
+            // Sub-lists that LinkedList creates for itself are not viewed, nor are lists whose structure is unknown
+            if (caller == null || !(retVal instanceof LinkedList)) {
+                this.writeOperation(caller, Operation.GET_SUB_LIST, start, stop);
+                return retVal;
+            }
+            LinkedListView<E> view = new LinkedListView<>(this, (LinkedList<E>) retVal);
+            this.writeSummarisedOperation(caller, Operation.GET_SUB_LIST,
+                    "Returned as <code>" + view.listName + "</code>.", start, stop);
+            return view;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void insert(int pos, E item) {
-        super.insert(pos, item);
-        this.writeOperation(String.format("insert(%d, %s)", pos, item.toString()), true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.INSERT) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.insert(pos, item);
+            } else {
+                this.subList.insert(pos, item);
+            }
+            this.stopProfiling(Operation.INSERT, startNanos);
+            this.writeOperation(caller, Operation.INSERT, pos, item);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void add(E item) {
-        super.add(item);
-        this.writeOperation(String.format("add(%s)", item.toString()), true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.ADD) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.add(item);
+            } else {
+                this.subList.add(item);
+            }
+            this.stopProfiling(Operation.ADD, startNanos);
+            this.writeOperation(caller, Operation.ADD, item);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void addFirst(E item) {
-        super.addFirst(item);
-        this.writeOperation(String.format("addFirst(%s)", item.toString()), true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.ADD_FIRST) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.addFirst(item);
+            } else {
+                this.subList.addFirst(item);
+            }
+            this.stopProfiling(Operation.ADD_FIRST, startNanos);
+            this.writeOperation(caller, Operation.ADD_FIRST, item);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void addLast(E item) {
-        super.addLast(item);
-        this.writeOperation(String.format("addLast(%s)", item.toString()), true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.ADD_LAST) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.addLast(item);
+            } else {
+                this.subList.addLast(item);
+            }
+            this.stopProfiling(Operation.ADD_LAST, startNanos);
+            this.writeOperation(caller, Operation.ADD_LAST, item);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public E remove(int pos) {
-        E retVal = super.remove(pos);
-        this.writeOperation(String.format("remove(%d)", pos), true);
-        return retVal;
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.REMOVE) : null;
+            long startNanos = this.startProfiling(external);
+            E retVal = (this.subList == null) ? super.remove(pos) : this.subList.remove(pos);
+            this.stopProfiling(Operation.REMOVE, startNanos);
+            this.writeOperation(caller, Operation.REMOVE, pos);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public boolean remove(E obj) {
-        boolean retVal = super.remove(obj);
-        this.writeOperation(String.format("remove(%s)", obj.toString()), true);
-        return retVal;
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.REMOVE_ELEMENT) : null;
+            long startNanos = this.startProfiling(external);
+            boolean retVal = (this.subList == null) ? super.remove(obj) : this.subList.remove(obj);
+            this.stopProfiling(Operation.REMOVE_ELEMENT, startNanos);
+            this.writeOperation(caller, Operation.REMOVE_ELEMENT, obj);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public E removeFirst() {
-        E retVal = super.removeFirst();
-        this.writeOperation("removeFirst()", true);
-        return retVal;
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.REMOVE_FIRST) : null;
+            long startNanos = this.startProfiling(external);
+            E retVal = (this.subList == null) ? super.removeFirst() : this.subList.removeFirst();
+            this.stopProfiling(Operation.REMOVE_FIRST, startNanos);
+            this.writeOperation(caller, Operation.REMOVE_FIRST);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public E removeLast() {
-        E retVal = super.removeLast();
-        this.writeOperation("removeLast()", true);
-        return retVal;
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.REMOVE_LAST) : null;
+            long startNanos = this.startProfiling(external);
+            E retVal = (this.subList == null) ? super.removeLast() : this.subList.removeLast();
+            this.stopProfiling(Operation.REMOVE_LAST, startNanos);
+            this.writeOperation(caller, Operation.REMOVE_LAST);
+            return retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void removeRange(int start, int stop) {
-        super.removeRange(start, stop);
-        this.writeOperation(String.format("removeRange(%d, %d)", start, stop), true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.REMOVE_RANGE) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.removeRange(start, stop);
+            } else {
+                this.subList.removeRange(start, stop);
+            }
+            this.stopProfiling(Operation.REMOVE_RANGE, startNanos);
+            this.writeOperation(caller, Operation.REMOVE_RANGE, start, stop);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public void makeEmpty() {
-        super.makeEmpty();
-        this.writeOperation("makeEmpty()", true);
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.MAKE_EMPTY) : null;
+            long startNanos = this.startProfiling(external);
+            if (this.subList == null) {
+                super.makeEmpty();
+            } else {
+                this.subList.makeEmpty();
+            }
+            this.stopProfiling(Operation.MAKE_EMPTY, startNanos);
+            this.writeOperation(caller, Operation.MAKE_EMPTY);
+        } finally {
+            this.exitOperation();
+        }
     }
 
     @Override
     public Iterator<E> iterator() {
-        this.writeOperation("iterator()", false);
-        return super.iterator();
+        boolean external = this.enterOperation();
+        try {
+            StackWalker.StackFrame caller = external ? this.beginOperation(Operation.ITERATOR) : null;
+            this.writeOperation(caller, Operation.ITERATOR);
+            long startNanos = this.startProfiling(external);
+            Iterator<E> retVal = (this.subList == null) ? super.iterator() : this.subList.iterator();
+            this.stopProfiling(Operation.ITERATOR, startNanos);
+            // Iterators used by LinkedList itself are not logged
+            return (caller != null) ? new LoggingIterator(retVal, caller) : retVal;
+        } finally {
+            this.exitOperation();
+        }
     }
     //endregion
 }
@@ -0,0 +1,313 @@
+package linkedlistview;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reference doubly-linked list with a circular layout:  a dummy header node whose next node is the first node of the
+ * list and whose previous node is the last.
+ * @param <E> The type of the elements of the list.
+ */
+public class LinkedList<E> implements IList<E> {
+    /**
+     * A node of the list.
+     * @param <E> The type of the element stored in the node.
+     */
+    private static class DoubleListNode<E> {
+        /** The previous node in the list. */
+        private DoubleListNode<E> prev;
+
+        /** The element stored in this node. */
+        private E data;
+
+        /** The next node in the list. */
+        private DoubleListNode<E> next;
+
+        /**
+         * Create a new node.
+         * @param prev The previous node in the list.
+         * @param data The element to store.
+         * @param next The next node in the list.
+         */
+        private DoubleListNode(DoubleListNode<E> prev, E data, DoubleListNode<E> next) {
+            this.prev = prev;
+            this.data = data;
+            this.next = next;
+        }
+    }
+
+    /** The dummy header node of the list. */
+    private final DoubleListNode<E> header;
+
+    /** The number of elements in the list. */
+    private int size;
+
+    /**
+     * Create a new empty list.
+     */
+    public LinkedList() {
+        this.header = new DoubleListNode<>(null, null, null);
+        this.makeEmpty();
+    }
+
+    /**
+     * Find the node at the specified position, walking from whichever end of the list is closer.
+     * @param pos The position of the node, or size() for the header node.
+     * @return The node at the specified position.
+     */
+    private DoubleListNode<E> nodeAt(int pos) {
+        DoubleListNode<E> node = this.header;
+        if (pos < this.size / 2) {
+            for (int i = -1; i < pos; i++) {
+                node = node.next;
+            }
+        } else {
+            for (int i = this.size; i > pos; i--) {
+                node = node.prev;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Check that a position refers to an existing element of the list.
+     * @param pos The position to check.
+     */
+    private void checkPosition(int pos) {
+        if (pos < 0 || pos >= this.size) {
+            throw new IndexOutOfBoundsException("Position " + pos + " for list of size " + this.size);
+        }
+    }
+
+    /**
+     * Link a new node before an existing node.
+     * @param successor The node before which to link.
+     * @param item      The element to store in the new node.
+     */
+    private void linkBefore(DoubleListNode<E> successor, E item) {
+        DoubleListNode<E> node = new DoubleListNode<>(successor.prev, item, successor);
+        successor.prev.next = node;
+        successor.prev = node;
+        this.size++;
+    }
+
+    /**
+     * Unlink a node from the list.
+     * @param node The node to unlink.
+     * @return The element stored in the node.
+     */
+    private E unlink(DoubleListNode<E> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        this.size--;
+        return node.data;
+    }
+
+    @Override
+    public void add(E item) {
+        this.addLast(item);
+    }
+
+    @Override
+    public void insert(int pos, E item) {
+        if (pos < 0 || pos > this.size) {
+            throw new IndexOutOfBoundsException("Position " + pos + " for list of size " + this.size);
+        }
+        this.linkBefore(this.nodeAt(pos), item);
+    }
+
+    /**
+     * Add an item to the start of this list.
+     * @param item The item to add.
+     */
+    public void addFirst(E item) {
+        this.linkBefore(this.header.next, item);
+    }
+
+    /**
+     * Add an item to the end of this list.
+     * @param item The item to add.
+     */
+    public void addLast(E item) {
+        this.linkBefore(this.header, item);
+    }
+
+    @Override
+    public E set(int pos, E item) {
+        this.checkPosition(pos);
+        DoubleListNode<E> node = this.nodeAt(pos);
+        E old = node.data;
+        node.data = item;
+        return old;
+    }
+
+    @Override
+    public E get(int pos) {
+        this.checkPosition(pos);
+        return this.nodeAt(pos).data;
+    }
+
+    @Override
+    public E remove(int pos) {
+        this.checkPosition(pos);
+        return this.unlink(this.nodeAt(pos));
+    }
+
+    @Override
+    public boolean remove(E obj) {
+        for (DoubleListNode<E> node = this.header.next; node != this.header; node = node.next) {
+            if (obj == null ? node.data == null : obj.equals(node.data)) {
+                this.unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the first item of this list.
+     * @return The removed item.
+     */
+    public E removeFirst() {
+        this.checkPosition(0);
+        return this.unlink(this.header.next);
+    }
+
+    /**
+     * Remove the last item of this list.
+     * @return The removed item.
+     */
+    public E removeLast() {
+        this.checkPosition(0);
+        return this.unlink(this.header.prev);
+    }
+
+    @Override
+    public IList<E> getSubList(int start, int stop) {
+        if (start < 0 || stop > this.size || start > stop) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + stop + " for list of size " + this.size);
+        }
+        LinkedList<E> result = new LinkedList<>();
+        DoubleListNode<E> node = this.nodeAt(start);
+        for (int i = start; i < stop; i++) {
+            result.addLast(node.data);
+            node = node.next;
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int indexOf(E item) {
+        return this.indexOf(item, 0);
+    }
+
+    @Override
+    public int indexOf(E item, int pos) {
+        int index = 0;
+        for (DoubleListNode<E> node = this.header.next; node != this.header; node = node.next, index++) {
+            if (index >= pos && (item == null ? node.data == null : item.equals(node.data))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void makeEmpty() {
+        this.header.prev = this.header;
+        this.header.next = this.header;
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            /** The node whose element is returned by the next call to next(). */
+            private DoubleListNode<E> cursor = LinkedList.this.header.next;
+
+            /** The node whose element was returned by the last call to next(), or null if it has been removed. */
+            private DoubleListNode<E> last;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor != LinkedList.this.header;
+            }
+
+            @Override
+            public E next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.cursor;
+                this.cursor = this.cursor.next;
+                return this.last.data;
+            }
+
+            @Override
+            public void remove() {
+                if (this.last == null) {
+                    throw new IllegalStateException();
+                }
+                LinkedList.this.unlink(this.last);
+                this.last = null;
+            }
+        };
+    }
+
+    @Override
+    public void removeRange(int start, int stop) {
+        if (start < 0 || stop > this.size || start > stop) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + stop + " for list of size " + this.size);
+        }
+        DoubleListNode<E> node = this.nodeAt(start);
+        for (int i = start; i < stop; i++) {
+            node = node.next;
+            this.unlink(node.prev);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (DoubleListNode<E> node = this.header.next; node != this.header; node = node.next) {
+            result.append(node.data);
+            if (node.next != this.header) {
+                result.append(", ");
+            }
+        }
+        return result.append(']').toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof IList)) {
+            return false;
+        }
+        IList<?> otherList = (IList<?>) other;
+        if (otherList.size() != this.size) {
+            return false;
+        }
+        Iterator<?> otherItems = otherList.iterator();
+        for (E item : this) {
+            Object otherItem = otherItems.next();
+            if (item == null ? otherItem != null : !item.equals(otherItem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (E item : this) {
+            result = 31 * result + (item == null ? 0 : item.hashCode());
+        }
+        return result;
+    }
+}
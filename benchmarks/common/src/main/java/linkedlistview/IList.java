@@ -0,0 +1,111 @@
+package linkedlistview;
+
+import java.util.Iterator;
+
+/**
+ * Reference copy of the CS314 list interface implemented by the benchmark {@link LinkedList} fixtures.
+ * @param <E> The type of the elements of the list.
+ */
+public interface IList<E> extends Iterable<E> {
+    /**
+     * Add an item to the end of this list.
+     * @param item The item to add.
+     */
+    void add(E item);
+
+    /**
+     * Insert an item at the specified position in this list.
+     * @param pos  The position at which to insert, from 0 to size() inclusive.
+     * @param item The item to insert.
+     */
+    void insert(int pos, E item);
+
+    /**
+     * Replace the item at the specified position in this list.
+     * @param pos  The position to change.
+     * @param item The new item.
+     * @return The item previously at the specified position.
+     */
+    E set(int pos, E item);
+
+    /**
+     * Get the item at the specified position in this list.
+     * @param pos The position to retrieve.
+     * @return The item at the specified position.
+     */
+    E get(int pos);
+
+    /**
+     * Remove the item at the specified position in this list.
+     * @param pos The position to remove.
+     * @return The removed item.
+     */
+    E remove(int pos);
+
+    /**
+     * Remove the first occurrence of an item from this list.
+     * @param obj The item to remove.
+     * @return true if the item was removed, false if it was not present.
+     */
+    boolean remove(E obj);
+
+    /**
+     * Get a new list containing the items between the specified positions of this list.
+     * @param start The first position to include.
+     * @param stop  The position after the last position to include.
+     * @return The new list.
+     */
+    IList<E> getSubList(int start, int stop);
+
+    /**
+     * Get the number of items in this list.
+     * @return The number of items in this list.
+     */
+    int size();
+
+    /**
+     * Find the first occurrence of an item in this list.
+     * @param item The item to find.
+     * @return The position of the item, or -1 if it is not present.
+     */
+    int indexOf(E item);
+
+    /**
+     * Find the first occurrence of an item in this list at or after the specified position.
+     * @param item The item to find.
+     * @param pos  The position at which to begin the search.
+     * @return The position of the item, or -1 if it is not present.
+     */
+    int indexOf(E item, int pos);
+
+    /**
+     * Remove all items from this list.
+     */
+    void makeEmpty();
+
+    /**
+     * Get an iterator over the items of this list.
+     * @return An iterator over the items of this list.
+     */
+    Iterator<E> iterator();
+
+    /**
+     * Remove the items between the specified positions of this list.
+     * @param start The first position to remove.
+     * @param stop  The position after the last position to remove.
+     */
+    void removeRange(int start, int stop);
+
+    /**
+     * Get a string representation of this list of the form [A, B, C].
+     * @return A string representation of this list.
+     */
+    String toString();
+
+    /**
+     * Determine whether this list contains the same items in the same order as another list.
+     * @param other The object to compare to.
+     * @return true if other is an IList with equal items, false otherwise.
+     */
+    boolean equals(Object other);
+}
@@ -0,0 +1,207 @@
+package linkedlistview;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time and allocation that LinkedListView adds to each LinkedList operation, by performing the same
+ * operations on a bare LinkedList, a view that only lists operations, and a view that draws a diagramme after every
+ * modification.  The list is built without logging before each iteration, so that every variant starts from the
+ * same list of the specified size, and each view's transcript is deleted after its iteration, so that the transcript
+ * does not grow for the whole trial.
+ * <p>
+ * Operations that change the size of the list are paired with their inverse, so that the size stays constant for the
+ * whole iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListOperationBenchmark {
+    /**
+     * Lists on which operations can be measured.
+     */
+    public enum Variant {
+        /** A LinkedList without a view. */
+        BARE,
+        /** A LinkedListView that lists every operation without drawing diagrammes. */
+        VIEW_WITHOUT_DIAGRAMMES,
+        /** A LinkedListView that draws a diagramme after every modification. */
+        VIEW_WITH_DIAGRAMMES
+    }
+
+    /** The number of elements in the list. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    private int size;
+
+    /** The list on which to measure operations. */
+    @Param
+    private Variant variant;
+
+    /** The list on which operations are performed. */
+    private LinkedList<Integer> list;
+
+    /** The transcript written by the view, or null if the list has no view. */
+    private Path transcript;
+
+    /** The position in the middle of the list, at which positional operations are performed. */
+    private int middle;
+
+    /** The element added and set by operations. */
+    private Integer element;
+
+    /** The element set by alternate calls to set(int, E), so that every call modifies the list. */
+    private Integer otherElement;
+
+    /**
+     * Build the list to measure.
+     * @throws IOException If the transcript could not be created.
+     * @throws NoSuchFieldException If the view could not determine how LinkedList is structured.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, NoSuchFieldException {
+        this.middle = this.size / 2;
+        this.element = -1;
+        this.otherElement = -2;
+
+        if (this.variant == Variant.BARE) {
+            this.list = new LinkedList<>();
+            this.populate();
+        } else {
+            this.transcript = Files.createTempFile("ListOperationBenchmark", ".html");
+            LinkedListView<Integer> view = new LinkedListView<>(this.transcript.toString(),
+                    new LinkedListView.Options().setDrawDiagrammes(this.variant == Variant.VIEW_WITH_DIAGRAMMES));
+            this.list = view;
+            view.runUnlogged(this::populate);
+        }
+    }
+
+    /**
+     * Add size elements to the list.
+     */
+    private void populate() {
+        for (int i = 0; i < this.size; i++) {
+            this.list.add(i);
+        }
+    }
+
+    /**
+     * Close the view and delete its transcript.
+     * @throws IOException If the transcript could not be deleted.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (this.list instanceof LinkedListView) {
+            ((LinkedListView<Integer>) this.list).close();
+            Files.deleteIfExists(this.transcript);
+        }
+    }
+
+    /**
+     * Measure add(E), paired with removeLast().
+     * @return The removed element.
+     */
+    @Benchmark
+    public Integer add() {
+        this.list.add(this.element);
+        return this.list.removeLast();
+    }
+
+    /**
+     * Measure insert(int, E) in the middle of the list, paired with remove(int) at the same position.
+     * @return The removed element.
+     */
+    @Benchmark
+    public Integer insert() {
+        this.list.insert(this.middle, this.element);
+        return this.list.remove(this.middle);
+    }
+
+    /**
+     * Measure remove(int) in the middle of the list, paired with insert(int, E) at the same position.
+     * @return The removed element.
+     */
+    @Benchmark
+    public Integer remove() {
+        Integer removed = this.list.remove(this.middle);
+        this.list.insert(this.middle, removed);
+        return removed;
+    }
+
+    /**
+     * Measure get(int) in the middle of the list.
+     * @return The element in the middle of the list.
+     */
+    @Benchmark
+    public Integer get() {
+        return this.list.get(this.middle);
+    }
+
+    /**
+     * Measure set(int, E) in the middle of the list, alternating between two elements.  Setting the element already in
+     * place would leave the list unchanged, and views skip the diagrammes of unchanged lists.
+     * @return The element previously in the middle of the list.
+     */
+    @Benchmark
+    public Integer set() {
+        Integer replacement = this.element;
+        this.element = this.otherElement;
+        this.otherElement = replacement;
+        return this.list.set(this.middle, replacement);
+    }
+
+    /**
+     * Measure iterating over every element of the list.
+     * @param blackhole Consumer of the elements.
+     */
+    @Benchmark
+    public void iterator(Blackhole blackhole) {
+        for (Integer item : this.list) {
+            blackhole.consume(item);
+        }
+    }
+
+    /**
+     * Measure toString().
+     * @return The string representation of the list.
+     */
+    @Benchmark
+    public String toStringOperation() {
+        return this.list.toString();
+    }
+
+    /**
+     * Run every benchmark with the GC profiler, which reports the allocation rate and bytes allocated per operation.
+     * @param args Ignored.
+     * @throws RunnerException If the benchmarks could not be run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListOperationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}